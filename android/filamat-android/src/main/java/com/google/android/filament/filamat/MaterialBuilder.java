@@ -22,12 +22,12 @@ import androidx.annotation.Nullable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class MaterialBuilder {
-    @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"})
+public class MaterialBuilder implements AutoCloseable {
     // Keep to finalize native resources
     private final BuilderFinalizer mFinalizer;
-    private final long mNativeObject;
+    private long mNativeObject;
 
     private static Class<?> sEngineClass = null;
     private static Method sGetNativeJobSystemMethod = null;
@@ -511,6 +511,9 @@ public class MaterialBuilder {
      */
     @NonNull
     public MaterialPackage build(@Nullable Object jobSystemProvider) {
+        if (mNativeObject == 0) {
+            throw new IllegalStateException("Calling method on closed MaterialBuilder");
+        }
         long nativeJobSystem = 0;
         if (jobSystemProvider != null && sEngineClass != null) {
             if (sEngineClass.isInstance(jobSystemProvider) && sGetNativeJobSystemMethod != null) {
@@ -531,11 +534,30 @@ public class MaterialBuilder {
         return result;
     }
 
+    /**
+     * Frees the native builder now rather than when this <code>MaterialBuilder</code> is
+     * finalized. The <code>MaterialBuilder</code> must not be used after this call.
+     */
+    @Override
+    public void close() {
+        mFinalizer.destroy();
+        mNativeObject = 0;
+    }
+
+    // filamat doesn't depend on filament-android's NativeReaper, keep finalizing the builder but
+    // make the finalizer a no-op once the builder is closed
     private static class BuilderFinalizer {
-        private final long mNativeObject;
+        private final AtomicLong mNativeObject;
 
         BuilderFinalizer(long nativeObject) {
-            mNativeObject = nativeObject;
+            mNativeObject = new AtomicLong(nativeObject);
+        }
+
+        void destroy() {
+            long nativeObject = mNativeObject.getAndSet(0);
+            if (nativeObject != 0) {
+                nDestroyMaterialBuilder(nativeObject);
+            }
         }
 
         @Override
@@ -544,7 +566,7 @@ public class MaterialBuilder {
                 super.finalize();
             } catch (Throwable t) { // Ignore
             } finally {
-                nDestroyMaterialBuilder(mNativeObject);
+                destroy();
             }
         }
     }
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.filament;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the Java implementation of {@link MathUtils#packTangentFrames} against the native
+ * {@link MathUtils#packTangentFrame}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MathUtilsTest {
+    private static final int RANDOM_FRAME_COUNT = 64;
+
+    // t, b, n per frame
+    private static float[] sFrames;
+    private static int sFrameCount;
+
+    @BeforeClass
+    public static void setUp() {
+        Filament.init();
+
+        Random random = new Random(42);
+        float[] frames = new float[(8 + RANDOM_FRAME_COUNT * 2) * 9];
+        int count = 0;
+        // identity, and its reflection
+        count = addFrame(frames, count, 1, 0, 0,  0,  1, 0,  0, 0,  1);
+        count = addFrame(frames, count, 1, 0, 0,  0, -1, 0,  0, 0,  1);
+        // half turns, w is 0 and must be biased, then signed by the reflection
+        count = addFrame(frames, count, 1, 0, 0,  0, -1, 0,  0, 0, -1);
+        count = addFrame(frames, count, 1, 0, 0,  0,  1, 0,  0, 0, -1);
+        count = addFrame(frames, count, -1, 0, 0, 0, -1, 0,  0, 0,  1);
+        count = addFrame(frames, count, -1, 0, 0, 0,  1, 0,  0, 0,  1);
+        // not orthogonal, the bitangent only contributes the sign
+        count = addFrame(frames, count, 1, 0, 0,  0.6f,  0.8f, 0,  0, 0, 1);
+        count = addFrame(frames, count, 1, 0, 0,  0.6f, -0.8f, 0,  0, 0, 1);
+        for (int i = 0; i < RANDOM_FRAME_COUNT; i++) {
+            float x = (float) random.nextGaussian();
+            float y = (float) random.nextGaussian();
+            float z = (float) random.nextGaussian();
+            float w = (float) random.nextGaussian();
+            float l = (float) Math.sqrt(x * x + y * y + z * z + w * w);
+            x /= l; y /= l; z /= l; w /= l;
+            // columns of the rotation matrix of (x, y, z, w)
+            float tx = 1 - 2 * (y * y + z * z), ty = 2 * (x * y + z * w), tz = 2 * (x * z - y * w);
+            float bx = 2 * (x * y - z * w), by = 1 - 2 * (x * x + z * z), bz = 2 * (y * z + x * w);
+            float nx = 2 * (x * z + y * w), ny = 2 * (y * z - x * w), nz = 1 - 2 * (x * x + y * y);
+            count = addFrame(frames, count, tx, ty, tz,  bx,  by,  bz, nx, ny, nz);
+            count = addFrame(frames, count, tx, ty, tz, -bx, -by, -bz, nx, ny, nz);
+        }
+        sFrames = frames;
+        sFrameCount = count;
+    }
+
+    @Test
+    public void packFloat4MatchesNative() {
+        float[] expected = packNative();
+        FloatBuffer out = FloatBuffer.allocate(sFrameCount * 4);
+        MathUtils.packTangentFrames(tangents(), bitangents(), normals(), out, sFrameCount,
+                MathUtils.TangentFrameFormat.FLOAT4);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("frame " + i / 4, Float.floatToIntBits(expected[i]),
+                    Float.floatToIntBits(out.get(i)));
+        }
+    }
+
+    @Test
+    public void packShort4MatchesNative() {
+        float[] expected = packNative();
+        ShortBuffer out = ShortBuffer.allocate(sFrameCount * 4);
+        MathUtils.packTangentFrames(tangents(), bitangents(), normals(), out, sFrameCount,
+                MathUtils.TangentFrameFormat.SHORT4);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("frame " + i / 4, packSnorm16(expected[i]), out.get(i));
+        }
+    }
+
+    @Test
+    public void packToByteBufferMatchesNative() {
+        float[] expected = packNative();
+        ByteBuffer floats = ByteBuffer.allocateDirect(sFrameCount * 16)
+                .order(ByteOrder.nativeOrder());
+        ByteBuffer shorts = ByteBuffer.allocateDirect(sFrameCount * 8)
+                .order(ByteOrder.nativeOrder());
+        MathUtils.packTangentFrames(tangents(), bitangents(), normals(), floats, sFrameCount,
+                MathUtils.TangentFrameFormat.FLOAT4);
+        MathUtils.packTangentFrames(tangents(), bitangents(), normals(), shorts, sFrameCount,
+                MathUtils.TangentFrameFormat.SHORT4);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("frame " + i / 4, Float.floatToIntBits(expected[i]),
+                    Float.floatToIntBits(floats.getFloat(i * 4)));
+            assertEquals("frame " + i / 4, packSnorm16(expected[i]), shorts.getShort(i * 2));
+        }
+    }
+
+    @Test
+    public void signOfWEncodesReflection() {
+        ShortBuffer out = ShortBuffer.allocate(sFrameCount * 4);
+        MathUtils.packTangentFrames(tangents(), bitangents(), normals(), out, sFrameCount,
+                MathUtils.TangentFrameFormat.SHORT4);
+        for (int i = 0; i < sFrameCount; i++) {
+            int f = i * 9;
+            // (n x t) . b
+            float d = (sFrames[f + 7] * sFrames[f + 2] - sFrames[f + 8] * sFrames[f + 1]) * sFrames[f + 3] +
+                      (sFrames[f + 8] * sFrames[f + 0] - sFrames[f + 6] * sFrames[f + 2]) * sFrames[f + 4] +
+                      (sFrames[f + 6] * sFrames[f + 1] - sFrames[f + 7] * sFrames[f + 0]) * sFrames[f + 5];
+            short w = out.get(i * 4 + 3);
+            assertTrue("frame " + i, w != 0);
+            assertEquals("frame " + i, d < 0, w < 0);
+        }
+    }
+
+    private static int addFrame(float[] frames, int count,
+            float tx, float ty, float tz, float bx, float by, float bz,
+            float nx, float ny, float nz) {
+        int f = count * 9;
+        frames[f    ] = tx; frames[f + 1] = ty; frames[f + 2] = tz;
+        frames[f + 3] = bx; frames[f + 4] = by; frames[f + 5] = bz;
+        frames[f + 6] = nx; frames[f + 7] = ny; frames[f + 8] = nz;
+        return count + 1;
+    }
+
+    private static float[] packNative() {
+        float[] quaternions = new float[sFrameCount * 4];
+        for (int i = 0; i < sFrameCount; i++) {
+            int f = i * 9;
+            MathUtils.packTangentFrame(
+                    sFrames[f    ], sFrames[f + 1], sFrames[f + 2],
+                    sFrames[f + 3], sFrames[f + 4], sFrames[f + 5],
+                    sFrames[f + 6], sFrames[f + 7], sFrames[f + 8],
+                    quaternions, i * 4);
+        }
+        return quaternions;
+    }
+
+    private static FloatBuffer tangents() {
+        return component(0);
+    }
+
+    private static FloatBuffer bitangents() {
+        return component(3);
+    }
+
+    private static FloatBuffer normals() {
+        return component(6);
+    }
+
+    private static FloatBuffer component(int offset) {
+        FloatBuffer buffer = FloatBuffer.allocate(sFrameCount * 3);
+        for (int i = 0; i < sFrameCount; i++) {
+            buffer.put(sFrames, i * 9 + offset, 3);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    // same conversion as the SNORM16 vertex attributes, see packSnorm16() in the native math library
+    private static short packSnorm16(float v) {
+        float c = Math.min(1.0f, Math.max(-1.0f, v)) * 32767.0f;
+        return (short) (c < 0 ? -Math.round(-c) : Math.round(c));
+    }
+}
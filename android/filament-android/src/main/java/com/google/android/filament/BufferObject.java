@@ -38,15 +38,23 @@ import java.nio.BufferOverflowException;
 public class BufferObject {
     private long mNativeObject;
 
+    // size in bytes, given to the Builder
+    long mByteCount;
+
     private BufferObject(long nativeBufferObject) {
         mNativeObject = nativeBufferObject;
     }
 
-    public static class Builder {
-        @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"})
-        // Keep to finalize native resources
-        private final BuilderFinalizer mFinalizer;
-        private final long mNativeBuilder;
+    public static class Builder implements AutoCloseable {
+        private static final NativeReaper.Destructor sBuilderDestructor =
+                new NativeReaper.Destructor() {
+                    @Override
+                    public void destroy(long nativeObject) { nDestroyBuilder(nativeObject); }
+                };
+
+        private final NativeReaper.Cleanable mCleanable;
+        private long mNativeBuilder;
+        private int mByteCount;
 
         public enum BindingType {
             VERTEX,
@@ -54,7 +62,7 @@ public class BufferObject {
 
         public Builder() {
             mNativeBuilder = nCreateBuilder();
-            mFinalizer = new BuilderFinalizer(mNativeBuilder);
+            mCleanable = NativeReaper.register(this, mNativeBuilder, sBuilderDestructor);
         }
 
         /**
@@ -66,6 +74,7 @@ public class BufferObject {
         @NonNull
         public Builder size(@IntRange(from = 1) int byteCount) {
             nBuilderSize(mNativeBuilder, byteCount);
+            mByteCount = byteCount;
             return this;
         }
 
@@ -96,28 +105,26 @@ public class BufferObject {
          */
         @NonNull
         public BufferObject build(@NonNull Engine engine) {
+            if (mNativeBuilder == 0) {
+                throw new IllegalStateException("Calling method on closed Builder");
+            }
             long nativeBufferObject = nBuilderBuild(mNativeBuilder, engine.getNativeObject());
             if (nativeBufferObject == 0)
                 throw new IllegalStateException("Couldn't create BufferObject");
-            return new BufferObject(nativeBufferObject);
+            BufferObject bufferObject = new BufferObject(nativeBufferObject);
+            bufferObject.mByteCount = mByteCount;
+            engine.onCreated(bufferObject);
+            return bufferObject;
         }
 
-        private static class BuilderFinalizer {
-            private final long mNativeObject;
-
-            BuilderFinalizer(long nativeObject) {
-                mNativeObject = nativeObject;
-            }
-
-            @Override
-            public void finalize() {
-                try {
-                    super.finalize();
-                } catch (Throwable t) { // Ignore
-                } finally {
-                    nDestroyBuilder(mNativeObject);
-                }
-            }
+        /**
+         * Frees the native builder now rather than when this <code>Builder</code> becomes
+         * unreachable. The <code>Builder</code> must not be used after this call.
+         */
+        @Override
+        public void close() {
+            mCleanable.clean();
+            mNativeBuilder = 0;
         }
     }
 
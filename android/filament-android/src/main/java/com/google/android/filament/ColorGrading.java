@@ -139,17 +139,22 @@ public class ColorGrading {
     /**
      * Use <code>Builder</code> to construct a <code>ColorGrading</code> object instance.
      */
-    public static class Builder {
-        @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"}) // Keep to finalize native resources
-        private final BuilderFinalizer mFinalizer;
-        private final long mNativeBuilder;
+    public static class Builder implements AutoCloseable {
+        private static final NativeReaper.Destructor sBuilderDestructor =
+                new NativeReaper.Destructor() {
+                    @Override
+                    public void destroy(long nativeObject) { nDestroyBuilder(nativeObject); }
+                };
+
+        private final NativeReaper.Cleanable mCleanable;
+        private long mNativeBuilder;
 
         /**
          * Use <code>Builder</code> to construct a <code>ColorGrading</code> object instance.
          */
         public Builder() {
             mNativeBuilder = nCreateBuilder();
-            mFinalizer = new BuilderFinalizer(mNativeBuilder);
+            mCleanable = NativeReaper.register(this, mNativeBuilder, sBuilderDestructor);
         }
 
         /**
@@ -558,25 +563,24 @@ public class ColorGrading {
          */
         @NonNull
         public ColorGrading build(@NonNull Engine engine) {
+            if (mNativeBuilder == 0) {
+                throw new IllegalStateException("Calling method on closed Builder");
+            }
             long nativeColorGrading = nBuilderBuild(mNativeBuilder, engine.getNativeObject());
             if (nativeColorGrading == 0) throw new IllegalStateException("Couldn't create ColorGrading");
-            return new ColorGrading(nativeColorGrading);
+            ColorGrading colorGrading = new ColorGrading(nativeColorGrading);
+            ResourceTracker.onCreated(engine, colorGrading);
+            return colorGrading;
         }
 
-        private static class BuilderFinalizer {
-            private final long mNativeObject;
-
-            BuilderFinalizer(long nativeObject) { mNativeObject = nativeObject; }
-
-            @Override
-            public void finalize() {
-                try {
-                    super.finalize();
-                } catch (Throwable t) { // Ignore
-                } finally {
-                    nDestroyBuilder(mNativeObject);
-                }
-            }
+        /**
+         * Frees the native builder now rather than when this <code>Builder</code> becomes
+         * unreachable. The <code>Builder</code> must not be used after this call.
+         */
+        @Override
+        public void close() {
+            mCleanable.clean();
+            mNativeBuilder = 0;
         }
     }
 
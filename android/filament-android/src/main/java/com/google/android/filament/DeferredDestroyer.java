@@ -0,0 +1,354 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.filament;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+
+/**
+ * Spreads the destruction of resources across frames.
+ *
+ * <p>Destroying many or large resources at once, for instance when unloading a level, can
+ * cause a visible hitch. A <code>DeferredDestroyer</code> queues resources instead, and
+ * destroys them a few at a time each time {@link #flush} is called, typically once per frame
+ * after {@link Renderer#endFrame}. How much work is done per frame is bounded by a time budget
+ * and a count budget.</p>
+ *
+ * <p>Destruction happens in the order resources were queued. Resources must not be used after
+ * they are queued. Any resource type without a dedicated method, such as gltfio assets, can
+ * be queued with {@link #post}:</p>
+ *
+ * <pre>
+ * destroyer.post(() -&gt; assetLoader.destroyAsset(asset));
+ * </pre>
+ *
+ * <p>Like the <code>Engine</code>, a <code>DeferredDestroyer</code> is not thread-safe. All
+ * pending resources must be destroyed with {@link #flushAll} before the <code>Engine</code>
+ * is destroyed.</p>
+ */
+public class DeferredDestroyer {
+    private static final long DEFAULT_TIME_BUDGET_NANOS = 1_000_000L;
+    // entities are destroyed in slices of this size between two checks of the time budget
+    private static final int ENTITY_SLICE_SIZE = 64;
+
+    @NonNull private final Engine mEngine;
+    @NonNull private final ArrayDeque<Object> mQueue = new ArrayDeque<>();
+    private long mTimeBudgetNanos = DEFAULT_TIME_BUDGET_NANOS;
+    private int mCountBudget = Integer.MAX_VALUE;
+    private int mBacklogSize;
+
+    // entities consumed incrementally from the end, entities[0, end) are still pending
+    private static class PendingEntities {
+        @NonNull final int[] entities;
+        final boolean releaseEntities;
+        int end;
+
+        PendingEntities(@NonNull int[] entities, boolean releaseEntities) {
+            this.entities = entities;
+            this.releaseEntities = releaseEntities;
+            this.end = entities.length;
+        }
+    }
+
+    /**
+     * Creates a <code>DeferredDestroyer</code> with a time budget of 1 ms per frame and no
+     * count budget.
+     *
+     * @param engine the <code>Engine</code> the queued resources belong to
+     */
+    public DeferredDestroyer(@NonNull Engine engine) {
+        mEngine = engine;
+    }
+
+    /**
+     * Sets the maximum time spent destroying resources in each call to {@link #flush}. At
+     * least one resource is destroyed per call regardless of this budget, so that the backlog
+     * always drains.
+     *
+     * @param nanos time budget in nanoseconds, 1 ms by default
+     */
+    public void setTimeBudget(@IntRange(from = 0) long nanos) {
+        mTimeBudgetNanos = nanos;
+    }
+
+    /**
+     * @return the time budget in nanoseconds
+     */
+    public long getTimeBudget() {
+        return mTimeBudgetNanos;
+    }
+
+    /**
+     * Sets the maximum number of resources destroyed in each call to {@link #flush}. Each
+     * entity counts as one resource.
+     *
+     * @param count count budget, at least 1, unbounded by default
+     */
+    public void setCountBudget(@IntRange(from = 1) int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count budget must be at least 1");
+        }
+        mCountBudget = count;
+    }
+
+    /**
+     * @return the count budget
+     */
+    public int getCountBudget() {
+        return mCountBudget;
+    }
+
+    /**
+     * @return the number of resources waiting to be destroyed, each entity counts as one
+     * resource
+     */
+    public int getBacklogSize() {
+        return mBacklogSize;
+    }
+
+    /**
+     * Queues the destruction of a {@link Stream}, performed by a later call to
+     * {@link #flush}. The resource must not be used afterwards.
+     *
+     * @see Engine#destroyStream
+     */
+    public void destroyStream(@NonNull Stream stream) { enqueue(stream); }
+
+    /**
+     * Queues the destruction of a {@link Fence}, performed by a later call to
+     * {@link #flush}. The resource must not be used afterwards.
+     *
+     * @see Engine#destroyFence
+     */
+    public void destroyFence(@NonNull Fence fence) { enqueue(fence); }
+
+    /**
+     * Queues the destruction of an {@link IndexBuffer}, performed by a later call to
+     * {@link #flush}. The resource must not be used afterwards.
+     *
+     * @see Engine#destroyIndexBuffer
+     */
+    public void destroyIndexBuffer(@NonNull IndexBuffer indexBuffer) { enqueue(indexBuffer); }
+
+    /**
+     * Queues the destruction of a {@link VertexBuffer}, performed by a later call to
+     * {@link #flush}. The resource must not be used afterwards.
+     *
+     * @see Engine#destroyVertexBuffer
+     */
+    public void destroyVertexBuffer(@NonNull VertexBuffer vertexBuffer) {
+        enqueue(vertexBuffer);
+    }
+
+    /**
+     * Queues the destruction of a {@link SkinningBuffer}, performed by a later call to
+     * {@link #flush}. The resource must not be used afterwards.
+     *
+     * @see Engine#destroySkinningBuffer
+     */
+    public void destroySkinningBuffer(@NonNull SkinningBuffer skinningBuffer) {
+        enqueue(skinningBuffer);
+    }
+
+    /**
+     * Queues the destruction of an {@link IndirectLight}, performed by a later call to
+     * {@link #flush}. The resource must not be used afterwards.
+     *
+     * @see Engine#destroyIndirectLight
+     */
+    public void destroyIndirectLight(@NonNull IndirectLight ibl) { enqueue(ibl); }
+
+    /**
+     * Queues the destruction of a {@link Material}, performed by a later call to
+     * {@link #flush}. The resource must not be used afterwards.
+     *
+     * @see Engine#destroyMaterial
+     */
+    public void destroyMaterial(@NonNull Material material) { enqueue(material); }
+
+    /**
+     * Queues the destruction of a {@link MaterialInstance}, performed by a later call to
+     * {@link #flush}. The resource must not be used afterwards.
+     *
+     * @see Engine#destroyMaterialInstance
+     */
+    public void destroyMaterialInstance(@NonNull MaterialInstance materialInstance) {
+        enqueue(materialInstance);
+    }
+
+    /**
+     * Queues the destruction of a {@link Skybox}, performed by a later call to
+     * {@link #flush}. The resource must not be used afterwards.
+     *
+     * @see Engine#destroySkybox
+     */
+    public void destroySkybox(@NonNull Skybox skybox) { enqueue(skybox); }
+
+    /**
+     * Queues the destruction of a {@link ColorGrading}, performed by a later call to
+     * {@link #flush}. The resource must not be used afterwards.
+     *
+     * @see Engine#destroyColorGrading
+     */
+    public void destroyColorGrading(@NonNull ColorGrading colorGrading) {
+        enqueue(colorGrading);
+    }
+
+    /**
+     * Queues the destruction of a {@link Texture}, performed by a later call to
+     * {@link #flush}. The resource must not be used afterwards.
+     *
+     * @see Engine#destroyTexture
+     */
+    public void destroyTexture(@NonNull Texture texture) { enqueue(texture); }
+
+    /**
+     * Queues the destruction of a {@link RenderTarget}, performed by a later call to
+     * {@link #flush}. The resource must not be used afterwards.
+     *
+     * @see Engine#destroyRenderTarget
+     */
+    public void destroyRenderTarget(@NonNull RenderTarget target) { enqueue(target); }
+
+    /**
+     * Queues the destruction of all the components of an entity.
+     *
+     * @param entity the entity whose components to destroy
+     * @see Engine#destroyEntity
+     */
+    public void destroyEntity(@Entity int entity) {
+        destroyEntities(new int[] { entity }, false);
+    }
+
+    /**
+     * Queues the destruction of all the components of many entities, and optionally of the
+     * entities themselves. As with {@link Engine#destroyEntities(int[], boolean)}, entities are
+     * destroyed from the last to the first, possibly over several frames.
+     *
+     * @param entities        the entities whose components to destroy, the array must not
+     *                        be modified afterwards
+     * @param releaseEntities if true, the entities are also destroyed in the
+     *                        {@link EntityManager}
+     * @see Engine#destroyEntities(int[], boolean)
+     */
+    public void destroyEntities(@Entity @NonNull int[] entities, boolean releaseEntities) {
+        if (entities.length == 0) {
+            return;
+        }
+        mQueue.addLast(new PendingEntities(entities, releaseEntities));
+        mBacklogSize += entities.length;
+    }
+
+    /**
+     * Queues an arbitrary destruction, which counts as one resource.
+     *
+     * @param destruction called from {@link #flush} when its turn comes
+     */
+    public void post(@NonNull Runnable destruction) {
+        enqueue(destruction);
+    }
+
+    /**
+     * Destroys queued resources, within the time and count budgets.
+     *
+     * @return the number of resources destroyed
+     */
+    public int flush() {
+        final long start = System.nanoTime();
+        int count = 0;
+        while (!mQueue.isEmpty() && count < mCountBudget) {
+            count += destroyNext(Math.min(mCountBudget - count, ENTITY_SLICE_SIZE));
+            if (System.nanoTime() - start >= mTimeBudgetNanos) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Destroys all the queued resources, ignoring the budgets.
+     *
+     * @return the number of resources destroyed
+     */
+    public int flushAll() {
+        int count = 0;
+        while (!mQueue.isEmpty()) {
+            count += destroyNext(Integer.MAX_VALUE);
+        }
+        return count;
+    }
+
+    private void enqueue(@NonNull Object resource) {
+        mQueue.addLast(resource);
+        mBacklogSize++;
+    }
+
+    // destroys the resource at the head of the queue, or up to maxCount of its entities
+    private int destroyNext(int maxCount) {
+        final Object resource = mQueue.peekFirst();
+        final Engine engine = mEngine;
+        if (resource instanceof PendingEntities) {
+            PendingEntities pending = (PendingEntities) resource;
+            int count = destroyEntities(pending, maxCount);
+            if (pending.end == 0) {
+                mQueue.pollFirst();
+            }
+            mBacklogSize -= count;
+            return count;
+        }
+        mQueue.pollFirst();
+        mBacklogSize--;
+        if (resource instanceof Texture) {
+            engine.destroyTexture((Texture) resource);
+        } else if (resource instanceof VertexBuffer) {
+            engine.destroyVertexBuffer((VertexBuffer) resource);
+        } else if (resource instanceof IndexBuffer) {
+            engine.destroyIndexBuffer((IndexBuffer) resource);
+        } else if (resource instanceof MaterialInstance) {
+            engine.destroyMaterialInstance((MaterialInstance) resource);
+        } else if (resource instanceof Material) {
+            engine.destroyMaterial((Material) resource);
+        } else if (resource instanceof SkinningBuffer) {
+            engine.destroySkinningBuffer((SkinningBuffer) resource);
+        } else if (resource instanceof IndirectLight) {
+            engine.destroyIndirectLight((IndirectLight) resource);
+        } else if (resource instanceof Skybox) {
+            engine.destroySkybox((Skybox) resource);
+        } else if (resource instanceof ColorGrading) {
+            engine.destroyColorGrading((ColorGrading) resource);
+        } else if (resource instanceof RenderTarget) {
+            engine.destroyRenderTarget((RenderTarget) resource);
+        } else if (resource instanceof Stream) {
+            engine.destroyStream((Stream) resource);
+        } else if (resource instanceof Fence) {
+            engine.destroyFence((Fence) resource);
+        } else {
+            ((Runnable) resource).run();
+        }
+        return 1;
+    }
+
+    private int destroyEntities(@NonNull PendingEntities pending, int maxCount) {
+        final int end = pending.end;
+        final int start = end - Math.min(maxCount, end);
+        mEngine.destroyEntities(pending.entities, start, end, pending.releaseEntities);
+        pending.end = start;
+        return end - start;
+    }
+}
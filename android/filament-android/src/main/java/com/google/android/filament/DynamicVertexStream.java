@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.filament;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Streams per-frame vertex data, such as trails, UI meshes or CPU-deformed meshes, into one
+ * buffer of a {@link VertexBuffer}.
+ *
+ * <p>Updating a buffer the GPU is still reading from can stall the pipeline. Instead, a
+ * <code>DynamicVertexStream</code> rotates between several {@link BufferObject}s: each call to
+ * {@link #commit} uploads into the next one and binds it with
+ * {@link VertexBuffer#setBufferObjectAt}. A {@link Fence} guards each <code>BufferObject</code>
+ * until the frames reading it are done. If the CPU gets ahead of the GPU,
+ * <code>commit</code> waits on that fence and counts a stall.</p>
+ *
+ * <p>The content of the stream is kept in a CPU-side copy, which is modified through
+ * {@link #getBuffer} and {@link #markDirty}, or {@link #update}. Only the modified ranges are
+ * uploaded. The <code>VertexBuffer</code> must be built with
+ * {@link VertexBuffer.Builder#enableBufferObjects}.</p>
+ *
+ * <pre>
+ * DynamicVertexStream positions = new DynamicVertexStream(engine, vertexBuffer, 0, byteCount);
+ * // each frame
+ * positions.update(newPositions, 0);
+ * positions.commit();
+ * renderer.render(view);
+ * </pre>
+ *
+ * <p>Like the {@link Engine}, a <code>DynamicVertexStream</code> is not thread-safe. Call
+ * {@link #destroy} before destroying the <code>VertexBuffer</code>.</p>
+ */
+public class DynamicVertexStream {
+    /** Default number of {@link BufferObject}s, i.e. triple buffering. */
+    public static final int DEFAULT_BUFFER_OBJECT_COUNT = 3;
+
+    @NonNull private final Engine mEngine;
+    @NonNull private final VertexBuffer mVertexBuffer;
+    private final int mBufferIndex;
+
+    @NonNull private final BufferObject[] mBufferObjects;
+    @NonNull private final Fence[] mFences;
+    // range of bytes of each BufferObject that is older than the CPU-side copy
+    @NonNull private final int[] mDirtyStart;
+    @NonNull private final int[] mDirtyEnd;
+    private int mCurrent = -1;
+
+    @NonNull private final ByteBuffer mContent;
+    @NonNull private final StagingBufferPool mStagingPool;
+
+    private int mStallCount;
+    private long mUploadedByteCount;
+
+    /**
+     * Creates a triple-buffered stream.
+     *
+     * @param engine        the {@link Engine} associated with <code>vertexBuffer</code>
+     * @param vertexBuffer  a <code>VertexBuffer</code> built with buffer objects enabled
+     * @param bufferIndex   index of the streamed buffer in <code>vertexBuffer</code>
+     * @param byteCount     size of the streamed buffer in bytes
+     */
+    public DynamicVertexStream(@NonNull Engine engine, @NonNull VertexBuffer vertexBuffer,
+            int bufferIndex, @IntRange(from = 1) int byteCount) {
+        this(engine, vertexBuffer, bufferIndex, byteCount, DEFAULT_BUFFER_OBJECT_COUNT);
+    }
+
+    /**
+     * Creates a stream.
+     *
+     * @param engine            the {@link Engine} associated with <code>vertexBuffer</code>
+     * @param vertexBuffer      a <code>VertexBuffer</code> built with buffer objects enabled
+     * @param bufferIndex       index of the streamed buffer in <code>vertexBuffer</code>
+     * @param byteCount         size of the streamed buffer in bytes
+     * @param bufferObjectCount number of {@link BufferObject}s to rotate between, at least 2
+     */
+    public DynamicVertexStream(@NonNull Engine engine, @NonNull VertexBuffer vertexBuffer,
+            int bufferIndex, @IntRange(from = 1) int byteCount,
+            @IntRange(from = 2) int bufferObjectCount) {
+        if (byteCount < 1) {
+            throw new IllegalArgumentException("byteCount must be at least 1: " + byteCount);
+        }
+        if (bufferObjectCount < 2) {
+            throw new IllegalArgumentException(
+                    "bufferObjectCount must be at least 2: " + bufferObjectCount);
+        }
+        mEngine = engine;
+        mVertexBuffer = vertexBuffer;
+        mBufferIndex = bufferIndex;
+
+        mBufferObjects = new BufferObject[bufferObjectCount];
+        mFences = new Fence[bufferObjectCount];
+        mDirtyStart = new int[bufferObjectCount];
+        mDirtyEnd = new int[bufferObjectCount];
+        for (int i = 0; i < bufferObjectCount; i++) {
+            try (BufferObject.Builder builder = new BufferObject.Builder()) {
+                mBufferObjects[i] = builder
+                        .size(byteCount)
+                        .bindingType(BufferObject.Builder.BindingType.VERTEX)
+                        .build(engine);
+            }
+            // the initial content of a BufferObject is undefined
+            mDirtyEnd[i] = byteCount;
+        }
+
+        mContent = ByteBuffer.allocateDirect(byteCount);
+        mContent.order(ByteOrder.nativeOrder());
+        // enough to stage a full update of every BufferObject
+        mStagingPool = new StagingBufferPool(
+                (int) Math.min(Integer.MAX_VALUE, (long) byteCount * bufferObjectCount));
+    }
+
+    /**
+     * Returns the CPU-side copy of the stream's content, in native byte order. Modified ranges
+     * must be reported with {@link #markDirty} to be uploaded by the next {@link #commit}.
+     *
+     * <p>Use absolute <code>get</code>/<code>put</code> methods or a duplicate of the buffer:
+     * its position and limit must not be changed.</p>
+     *
+     * @return the content of the stream
+     */
+    @NonNull
+    public ByteBuffer getBuffer() {
+        return mContent;
+    }
+
+    /**
+     * @return the size of the stream in bytes
+     */
+    public int getByteCount() {
+        return mContent.capacity();
+    }
+
+    /**
+     * Reports a modified range of the content returned by {@link #getBuffer}.
+     *
+     * @param offset    offset in bytes of the modified range
+     * @param byteCount size in bytes of the modified range
+     */
+    public void markDirty(@IntRange(from = 0) int offset, @IntRange(from = 0) int byteCount) {
+        if (offset < 0 || byteCount < 0 || offset > getByteCount() - byteCount) {
+            throw new IndexOutOfBoundsException("Range offset=" + offset +
+                    " byteCount=" + byteCount + " outside of stream of " + getByteCount() +
+                    " bytes");
+        }
+        if (byteCount == 0) {
+            return;
+        }
+        for (int i = 0; i < mBufferObjects.length; i++) {
+            if (mDirtyStart[i] >= mDirtyEnd[i]) {
+                mDirtyStart[i] = offset;
+                mDirtyEnd[i] = offset + byteCount;
+            } else {
+                mDirtyStart[i] = Math.min(mDirtyStart[i], offset);
+                mDirtyEnd[i] = Math.max(mDirtyEnd[i], offset + byteCount);
+            }
+        }
+    }
+
+    /**
+     * Reports the whole content returned by {@link #getBuffer} as modified.
+     */
+    public void markDirty() {
+        markDirty(0, getByteCount());
+    }
+
+    /**
+     * Copies data into the stream's content and marks the range as modified. The position of
+     * <code>data</code> is left unchanged.
+     *
+     * @param data              buffer of any type holding the new content
+     * @param destOffsetInBytes offset in bytes in the stream
+     * @exception java.nio.BufferOverflowException if the data doesn't fit in the stream
+     */
+    public void update(@NonNull Buffer data, @IntRange(from = 0) int destOffsetInBytes) {
+        ByteBuffer dst = mContent.duplicate();
+        dst.order(mContent.order());
+        dst.position(destOffsetInBytes);
+        NioUtils.copy(data, dst);
+        markDirty(destOffsetInBytes, dst.position() - destOffsetInBytes);
+    }
+
+    /**
+     * Uploads the modified content into the next {@link BufferObject} and binds it to the
+     * {@link VertexBuffer}. Call this once per frame, after updating the content and before
+     * rendering.
+     *
+     * <p>If the GPU is still reading the next <code>BufferObject</code>, this waits for it and
+     * increments {@link #getStallCount}.</p>
+     */
+    public void commit() {
+        int slot = (mCurrent + 1) % mBufferObjects.length;
+
+        Fence fence = mFences[slot];
+        if (fence != null) {
+            if (fence.wait(Fence.Mode.DONT_FLUSH, 0) != Fence.FenceStatus.CONDITION_SATISFIED) {
+                mStallCount++;
+                fence.wait(Fence.Mode.FLUSH, Fence.WAIT_FOR_EVER);
+            }
+            mEngine.destroyFence(fence);
+            mFences[slot] = null;
+        }
+
+        int start = mDirtyStart[slot];
+        int end = mDirtyEnd[slot];
+        if (start < end) {
+            ByteBuffer range = mContent.duplicate();
+            range.position(start);
+            range.limit(end);
+            ByteBuffer staging = mStagingPool.copy(range);
+            mBufferObjects[slot].setBuffer(mEngine, staging, start, end - start,
+                    mStagingPool.getHandler(), mStagingPool.getReleaseCallback(staging));
+            mUploadedByteCount += end - start;
+            mDirtyStart[slot] = 0;
+            mDirtyEnd[slot] = 0;
+        }
+
+        mVertexBuffer.setBufferObjectAt(mEngine, mBufferIndex, mBufferObjects[slot]);
+
+        // the BufferObject bound until now is read by the frames already rendered, the fence
+        // signals once they are done
+        if (mCurrent >= 0) {
+            mFences[mCurrent] = mEngine.createFence();
+        }
+        mCurrent = slot;
+    }
+
+    /**
+     * @return the number of times {@link #commit} had to wait for the GPU
+     */
+    public int getStallCount() {
+        return mStallCount;
+    }
+
+    /**
+     * @return the total number of bytes uploaded by {@link #commit}
+     */
+    public long getUploadedByteCount() {
+        return mUploadedByteCount;
+    }
+
+    /**
+     * @return the number of {@link BufferObject}s rotated between
+     */
+    public int getBufferObjectCount() {
+        return mBufferObjects.length;
+    }
+
+    /**
+     * @return the {@link BufferObject} bound by the last {@link #commit}, or null if
+     *         <code>commit</code> was never called
+     */
+    @Nullable
+    public BufferObject getCurrentBufferObject() {
+        return mCurrent >= 0 ? mBufferObjects[mCurrent] : null;
+    }
+
+    /**
+     * Destroys the fences of this stream. The stream must not be used after this call.
+     *
+     * <p>{@link BufferObject}s cannot be destroyed individually, the ones created by this stream
+     * are freed with the {@link Engine}.</p>
+     */
+    public void destroy() {
+        for (int i = 0; i < mFences.length; i++) {
+            if (mFences[i] != null) {
+                mEngine.destroyFence(mFences[i]);
+                mFences[i] = null;
+            }
+        }
+    }
+}
@@ -21,6 +21,9 @@ import androidx.annotation.Nullable;
 
 import com.google.android.filament.proguard.UsedByReflection;
 
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
 /**
  * Engine is filament's main entry-point.
  * <p>
@@ -115,6 +118,11 @@ public class Engine {
     @NonNull private final RenderableManager mRenderableManager;
     @NonNull private final EntityManager mEntityManager;
 
+    // estimated memory used by the resources created by Builders, see getMemoryStats()
+    @NonNull private final MemoryStats mMemoryStats = new MemoryStats();
+    // resources counted in mMemoryStats, null unless setMemoryStatsEnabled(true) was called
+    @Nullable private IdentityHashMap<Object, Boolean> mAccountedResources;
+
     /**
      * Denotes a backend
      */
@@ -141,6 +149,139 @@ public class Engine {
         NOOP,
     }
 
+    /**
+     * Estimated GPU memory used by the resources of an {@link Engine}, per resource type.
+     *
+     * <p>Byte counts are computed on the Java side from the parameters given to the resource
+     * <code>Builder</code>s (dimensions, format, vertex layout, payload size, ...). They don't
+     * account for driver padding, alignment or internal allocations, so the actual footprint is
+     * usually larger. Only resources created with a <code>Builder</code> of this
+     * <code>Engine</code> while {@link Engine#setMemoryStatsEnabled memory stats are enabled}
+     * are counted; imported textures count as 0 bytes.</p>
+     *
+     * <p>{@link BufferObject}s cannot be destroyed individually, they are counted until the
+     * <code>Engine</code> is destroyed.</p>
+     *
+     * @see Engine#getMemoryStats(MemoryStats)
+     */
+    public static class MemoryStats {
+        /** Number of levels tracked by {@link #textureByteCountPerLevel}. */
+        public static final int MAX_TEXTURE_LEVELS = 16;
+
+        /** Number of live {@link Texture}s. */
+        public int textureCount;
+        /** Estimated bytes used by all live {@link Texture}s. */
+        public long textureByteCount;
+        /**
+         * Estimated bytes used by live {@link Texture}s usable as a color, depth or stencil
+         * attachment, i.e. the storage of render targets. This is included in
+         * {@link #textureByteCount}.
+         */
+        public long renderTargetByteCount;
+        /**
+         * Estimated bytes used by live {@link Texture}s, indexed by
+         * {@link Texture.InternalFormat#ordinal()}.
+         */
+        @NonNull
+        public final long[] textureByteCountPerFormat =
+                new long[Texture.InternalFormat.values().length];
+        /**
+         * Estimated bytes used by live {@link Texture}s, indexed by mip level. Levels past
+         * {@link #MAX_TEXTURE_LEVELS} are counted in the last entry.
+         */
+        @NonNull
+        public final long[] textureByteCountPerLevel = new long[MAX_TEXTURE_LEVELS];
+
+        /** Number of live {@link VertexBuffer}s. */
+        public int vertexBufferCount;
+        /**
+         * Estimated bytes used by live {@link VertexBuffer}s. Vertex buffers that use
+         * {@link BufferObject}s count as 0 bytes, their storage is counted by the buffer objects.
+         */
+        public long vertexBufferByteCount;
+
+        /** Number of live {@link IndexBuffer}s. */
+        public int indexBufferCount;
+        /** Estimated bytes used by live {@link IndexBuffer}s. */
+        public long indexBufferByteCount;
+
+        /** Number of {@link BufferObject}s created by this <code>Engine</code>. */
+        public int bufferObjectCount;
+        /** Bytes used by the {@link BufferObject}s created by this <code>Engine</code>. */
+        public long bufferObjectByteCount;
+
+        /** Number of live {@link Material}s. */
+        public int materialCount;
+        /**
+         * Bytes used by the packages of live {@link Material}s, which contain their shader
+         * programs.
+         */
+        public long materialByteCount;
+
+        /**
+         * @return the estimated number of bytes used by all the resources counted in this object
+         */
+        public long getTotalByteCount() {
+            return textureByteCount + vertexBufferByteCount + indexBufferByteCount +
+                    bufferObjectByteCount + materialByteCount;
+        }
+
+        void set(@NonNull MemoryStats other) {
+            textureCount = other.textureCount;
+            textureByteCount = other.textureByteCount;
+            renderTargetByteCount = other.renderTargetByteCount;
+            System.arraycopy(other.textureByteCountPerFormat, 0,
+                    textureByteCountPerFormat, 0, textureByteCountPerFormat.length);
+            System.arraycopy(other.textureByteCountPerLevel, 0,
+                    textureByteCountPerLevel, 0, textureByteCountPerLevel.length);
+            vertexBufferCount = other.vertexBufferCount;
+            vertexBufferByteCount = other.vertexBufferByteCount;
+            indexBufferCount = other.indexBufferCount;
+            indexBufferByteCount = other.indexBufferByteCount;
+            bufferObjectCount = other.bufferObjectCount;
+            bufferObjectByteCount = other.bufferObjectByteCount;
+            materialCount = other.materialCount;
+            materialByteCount = other.materialByteCount;
+        }
+
+        // adds (sign = 1) or removes (sign = -1) a resource, resources without an estimate
+        // were not created by a Builder and are ignored
+        void account(@NonNull Object resource, int sign) {
+            if (resource instanceof Texture) {
+                Texture texture = (Texture) resource;
+                long[] levelByteCounts = texture.mLevelByteCounts;
+                if (levelByteCounts == null) return;
+                long byteCount = 0;
+                for (int level = 0; level < levelByteCounts.length; level++) {
+                    byteCount += levelByteCounts[level];
+                    textureByteCountPerLevel[Math.min(level, MAX_TEXTURE_LEVELS - 1)] +=
+                            sign * levelByteCounts[level];
+                }
+                textureCount += sign;
+                textureByteCount += sign * byteCount;
+                textureByteCountPerFormat[texture.mFormat.ordinal()] += sign * byteCount;
+                if ((texture.mUsage & (Texture.Usage.COLOR_ATTACHMENT |
+                        Texture.Usage.DEPTH_ATTACHMENT | Texture.Usage.STENCIL_ATTACHMENT)) != 0) {
+                    renderTargetByteCount += sign * byteCount;
+                }
+            } else if (resource instanceof VertexBuffer) {
+                vertexBufferCount += sign;
+                vertexBufferByteCount += sign * ((VertexBuffer) resource).mByteCount;
+            } else if (resource instanceof IndexBuffer) {
+                indexBufferCount += sign;
+                indexBufferByteCount += sign * ((IndexBuffer) resource).mByteCount;
+            } else if (resource instanceof BufferObject) {
+                bufferObjectCount += sign;
+                bufferObjectByteCount += sign * ((BufferObject) resource).mByteCount;
+            } else if (resource instanceof Material) {
+                long byteCount = ((Material) resource).mByteCount;
+                if (byteCount < 0) return;
+                materialCount += sign;
+                materialByteCount += sign * byteCount;
+            }
+        }
+    }
+
     private Engine(long nativeEngine) {
         mNativeObject = nativeEngine;
         mTransformManager = new TransformManager(nGetTransformManager(nativeEngine));
@@ -246,6 +387,8 @@ public class Engine {
      * </pre>
      */
     public void destroy() {
+        ResourceTracker.onEngineDestroyed(this);
+        setMemoryStatsEnabled(false);
         nDestroyEngine(getNativeObject());
         clearNativeObject();
     }
@@ -258,6 +401,69 @@ public class Engine {
         return sBackendValues[(int) nGetBackend(getNativeObject())];
     }
 
+    /**
+     * Enables or disables the estimation of the memory used by resources, see
+     * {@link #getMemoryStats}. Memory stats are disabled by default, so that creating resources
+     * costs nothing extra.
+     *
+     * <p>Only the resources created while memory stats are enabled are counted. Disabling them
+     * clears the stats.</p>
+     *
+     * @param enabled true to estimate the memory of the resources created from now on
+     */
+    public void setMemoryStatsEnabled(boolean enabled) {
+        if (enabled && mAccountedResources == null) {
+            mAccountedResources = new IdentityHashMap<>();
+        } else if (!enabled && mAccountedResources != null) {
+            mAccountedResources = null;
+            mMemoryStats.set(new MemoryStats());
+        }
+    }
+
+    /**
+     * @return whether memory stats are enabled, see {@link #setMemoryStatsEnabled}
+     */
+    public boolean isMemoryStatsEnabled() {
+        return mAccountedResources != null;
+    }
+
+    /**
+     * Returns the estimated GPU memory used by the resources of this <code>Engine</code>.
+     *
+     * <p>Memory stats must first be enabled with {@link #setMemoryStatsEnabled}, the returned
+     * stats are all zeros otherwise. This is cheap enough to be polled every frame: the totals
+     * are maintained as resources are created and destroyed, and this method only copies
+     * them.</p>
+     *
+     * @param out a {@link MemoryStats} to reuse, or <code>null</code> to allocate a new one
+     * @return <code>out</code>, or a new {@link MemoryStats} if <code>out</code> was null
+     * @exception IllegalStateException if this <code>Engine</code> was destroyed
+     * @see MemoryStats
+     */
+    @NonNull
+    public MemoryStats getMemoryStats(@Nullable MemoryStats out) {
+        if (!isValid()) {
+            throw new IllegalStateException("Calling method on destroyed Engine");
+        }
+        if (out == null) out = new MemoryStats();
+        out.set(mMemoryStats);
+        return out;
+    }
+
+    // accounts for a resource created by a Builder, see getMemoryStats()
+    void onCreated(@NonNull Object resource) {
+        if (mAccountedResources != null) {
+            mAccountedResources.put(resource, Boolean.TRUE);
+            mMemoryStats.account(resource, 1);
+        }
+    }
+
+    private void onDestroyed(@NonNull Object resource) {
+        if (mAccountedResources != null && mAccountedResources.remove(resource) != null) {
+            mMemoryStats.account(resource, -1);
+        }
+    }
+
     // SwapChain
 
     /**
@@ -295,7 +501,9 @@ public class Engine {
         if (Platform.get().validateSurface(surface)) {
             long nativeSwapChain = nCreateSwapChain(getNativeObject(), surface, flags);
             if (nativeSwapChain == 0) throw new IllegalStateException("Couldn't create SwapChain");
-            return new SwapChain(nativeSwapChain, surface);
+            SwapChain swapChain = new SwapChain(nativeSwapChain, surface);
+            ResourceTracker.onCreated(this, swapChain);
+            return swapChain;
         }
         throw new IllegalArgumentException("Invalid surface " + surface);
     }
@@ -321,7 +529,9 @@ public class Engine {
         if (width >= 0 && height >= 0) {
             long nativeSwapChain = nCreateSwapChainHeadless(getNativeObject(), width, height, flags);
             if (nativeSwapChain == 0) throw new IllegalStateException("Couldn't create SwapChain");
-            return new SwapChain(nativeSwapChain, null);
+            SwapChain swapChain = new SwapChain(nativeSwapChain, null);
+            ResourceTracker.onCreated(this, swapChain);
+            return swapChain;
         }
         throw new IllegalArgumentException("Invalid parameters");
     }
@@ -342,7 +552,9 @@ public class Engine {
         long nativeSwapChain =
                 nCreateSwapChainFromRawPointer(getNativeObject(), surface.getNativeObject(), flags);
         if (nativeSwapChain == 0) throw new IllegalStateException("Couldn't create SwapChain");
-        return new SwapChain(nativeSwapChain, surface);
+        SwapChain swapChain = new SwapChain(nativeSwapChain, surface);
+        ResourceTracker.onCreated(this, swapChain);
+        return swapChain;
     }
 
     /**
@@ -351,6 +563,7 @@ public class Engine {
      */
     public void destroySwapChain(@NonNull SwapChain swapChain) {
         assertDestroy(nDestroySwapChain(getNativeObject(), swapChain.getNativeObject()));
+        ResourceTracker.onDestroyed(swapChain);
         swapChain.clearNativeObject();
     }
 
@@ -365,7 +578,9 @@ public class Engine {
     public View createView() {
         long nativeView = nCreateView(getNativeObject());
         if (nativeView == 0) throw new IllegalStateException("Couldn't create View");
-        return new View(nativeView);
+        View view = new View(nativeView);
+        ResourceTracker.onCreated(this, view);
+        return view;
     }
 
     /**
@@ -374,6 +589,7 @@ public class Engine {
      */
     public void destroyView(@NonNull View view) {
         assertDestroy(nDestroyView(getNativeObject(), view.getNativeObject()));
+        ResourceTracker.onDestroyed(view);
         view.clearNativeObject();
     }
 
@@ -388,7 +604,9 @@ public class Engine {
     public Renderer createRenderer() {
         long nativeRenderer = nCreateRenderer(getNativeObject());
         if (nativeRenderer == 0) throw new IllegalStateException("Couldn't create Renderer");
-        return new Renderer(this, nativeRenderer);
+        Renderer renderer = new Renderer(this, nativeRenderer);
+        ResourceTracker.onCreated(this, renderer);
+        return renderer;
     }
 
     /**
@@ -397,6 +615,7 @@ public class Engine {
      */
     public void destroyRenderer(@NonNull Renderer renderer) {
         assertDestroy(nDestroyRenderer(getNativeObject(), renderer.getNativeObject()));
+        ResourceTracker.onDestroyed(renderer);
         renderer.clearNativeObject();
     }
 
@@ -450,7 +669,9 @@ public class Engine {
     public Scene createScene() {
         long nativeScene = nCreateScene(getNativeObject());
         if (nativeScene == 0) throw new IllegalStateException("Couldn't create Scene");
-        return new Scene(nativeScene);
+        Scene scene = new Scene(nativeScene);
+        ResourceTracker.onCreated(this, scene);
+        return scene;
     }
 
     /**
@@ -459,6 +680,7 @@ public class Engine {
      */
     public void destroyScene(@NonNull Scene scene) {
         assertDestroy(nDestroyScene(getNativeObject(), scene.getNativeObject()));
+        ResourceTracker.onDestroyed(scene);
         scene.clearNativeObject();
     }
 
@@ -470,6 +692,7 @@ public class Engine {
      */
     public void destroyStream(@NonNull Stream stream) {
         assertDestroy(nDestroyStream(getNativeObject(), stream.getNativeObject()));
+        ResourceTracker.onDestroyed(stream);
         stream.clearNativeObject();
     }
 
@@ -484,7 +707,9 @@ public class Engine {
     public Fence createFence() {
         long nativeFence = nCreateFence(getNativeObject());
         if (nativeFence == 0) throw new IllegalStateException("Couldn't create Fence");
-        return new Fence(nativeFence);
+        Fence fence = new Fence(nativeFence);
+        ResourceTracker.onCreated(this, fence);
+        return fence;
     }
 
     /**
@@ -493,6 +718,7 @@ public class Engine {
      */
     public void destroyFence(@NonNull Fence fence) {
         assertDestroy(nDestroyFence(getNativeObject(), fence.getNativeObject()));
+        ResourceTracker.onDestroyed(fence);
         fence.clearNativeObject();
     }
 
@@ -504,6 +730,8 @@ public class Engine {
      */
     public void destroyIndexBuffer(@NonNull IndexBuffer indexBuffer) {
         assertDestroy(nDestroyIndexBuffer(getNativeObject(), indexBuffer.getNativeObject()));
+        ResourceTracker.onDestroyed(indexBuffer);
+        onDestroyed(indexBuffer);
         indexBuffer.clearNativeObject();
     }
 
@@ -513,6 +741,8 @@ public class Engine {
      */
     public void destroyVertexBuffer(@NonNull VertexBuffer vertexBuffer) {
         assertDestroy(nDestroyVertexBuffer(getNativeObject(), vertexBuffer.getNativeObject()));
+        ResourceTracker.onDestroyed(vertexBuffer);
+        onDestroyed(vertexBuffer);
         vertexBuffer.clearNativeObject();
     }
 
@@ -522,6 +752,7 @@ public class Engine {
      */
     public void destroySkinningBuffer(@NonNull SkinningBuffer skinningBuffer) {
         assertDestroy(nDestroySkinningBuffer(getNativeObject(), skinningBuffer.getNativeObject()));
+        ResourceTracker.onDestroyed(skinningBuffer);
         skinningBuffer.clearNativeObject();
     }
 
@@ -531,6 +762,7 @@ public class Engine {
      */
     public void destroyIndirectLight(@NonNull IndirectLight ibl) {
         assertDestroy(nDestroyIndirectLight(getNativeObject(), ibl.getNativeObject()));
+        ResourceTracker.onDestroyed(ibl);
         ibl.clearNativeObject();
     }
 
@@ -544,6 +776,8 @@ public class Engine {
      */
     public void destroyMaterial(@NonNull Material material) {
         assertDestroy(nDestroyMaterial(getNativeObject(), material.getNativeObject()));
+        ResourceTracker.onDestroyed(material);
+        onDestroyed(material);
         material.clearNativeObject();
     }
 
@@ -553,6 +787,7 @@ public class Engine {
      */
     public void destroyMaterialInstance(@NonNull MaterialInstance materialInstance) {
         assertDestroy(nDestroyMaterialInstance(getNativeObject(), materialInstance.getNativeObject()));
+        ResourceTracker.onDestroyed(materialInstance);
         materialInstance.clearNativeObject();
     }
 
@@ -562,6 +797,7 @@ public class Engine {
      */
     public void destroySkybox(@NonNull Skybox skybox) {
         assertDestroy(nDestroySkybox(getNativeObject(), skybox.getNativeObject()));
+        ResourceTracker.onDestroyed(skybox);
         skybox.clearNativeObject();
     }
 
@@ -571,6 +807,7 @@ public class Engine {
      */
     public void destroyColorGrading(@NonNull ColorGrading colorGrading) {
         assertDestroy(nDestroyColorGrading(getNativeObject(), colorGrading.getNativeObject()));
+        ResourceTracker.onDestroyed(colorGrading);
         colorGrading.clearNativeObject();
     }
 
@@ -580,6 +817,8 @@ public class Engine {
      */
     public void destroyTexture(@NonNull Texture texture) {
         assertDestroy(nDestroyTexture(getNativeObject(), texture.getNativeObject()));
+        ResourceTracker.onDestroyed(texture);
+        onDestroyed(texture);
         texture.clearNativeObject();
     }
 
@@ -589,6 +828,7 @@ public class Engine {
      */
     public void destroyRenderTarget(@NonNull RenderTarget target) {
         nDestroyRenderTarget(getNativeObject(), target.getNativeObject());
+        ResourceTracker.onDestroyed(target);
         target.clearNativeObject();
     }
 
@@ -604,9 +844,53 @@ public class Engine {
      * @param entity the <code>entity</code> to destroy
      */
     public void destroyEntity(@Entity int entity) {
+        invalidateInstanceCaches();
         nDestroyEntity(getNativeObject(), entity);
     }
 
+    /**
+     * Destroys all the components of many entities, as if {@link #destroyEntity} was called for
+     * each of them. The entities themselves are not destroyed.
+     *
+     * @param entities the entities whose components to destroy
+     * @see #destroyEntities(int[], boolean)
+     */
+    public void destroyEntities(@Entity @NonNull int[] entities) {
+        destroyEntities(entities, false);
+    }
+
+    /**
+     * Destroys all the components of many entities, as if {@link #destroyEntity} was called for
+     * each of them, and optionally the entities themselves.
+     *
+     * <p>Entities are processed from the last to the first. When they are listed in creation
+     * order, as when tearing down everything a level created, this destroys children before their
+     * parents and the most recently created components first, which is the cheapest order for
+     * the component managers.</p>
+     *
+     * @param entities        the entities whose components to destroy
+     * @param releaseEntities if true, the entities are also destroyed in the
+     *                        {@link EntityManager}, with a single call to
+     *                        {@link EntityManager#destroy(int[])}
+     */
+    public void destroyEntities(@Entity @NonNull int[] entities, boolean releaseEntities) {
+        destroyEntities(entities, 0, entities.length, releaseEntities);
+    }
+
+    // destroys entities[start, end) from the last to the first, see destroyEntities(int[], boolean)
+    void destroyEntities(@Entity @NonNull int[] entities, int start, int end,
+            boolean releaseEntities) {
+        invalidateInstanceCaches();
+        final long nativeEngine = getNativeObject();
+        for (int i = end - 1; i >= start; i--) {
+            nDestroyEntity(nativeEngine, entities[i]);
+        }
+        if (releaseEntities) {
+            mEntityManager.destroy(start == 0 && end == entities.length ?
+                    entities : Arrays.copyOfRange(entities, start, end));
+        }
+    }
+
     // Managers
 
     /**
@@ -671,6 +955,12 @@ public class Engine {
         return nGetJobSystem(getNativeObject());
     }
 
+    private void invalidateInstanceCaches() {
+        mTransformManager.invalidateInstanceCache();
+        mLightManager.invalidateInstanceCache();
+        mRenderableManager.invalidateInstanceCache();
+    }
+
     private void clearNativeObject() {
         mNativeObject = 0;
     }
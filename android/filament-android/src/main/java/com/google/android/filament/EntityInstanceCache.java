@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.filament;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Java-side cache of the {@link EntityInstance} of each entity in one component manager.
+ *
+ * <p>The cache is disabled by default, in which case every lookup is forwarded to the native
+ * manager. When enabled, it is an open-addressing hash map with linear probing. Entity 0 is the
+ * null entity and marks empty slots, instance 0 is the null instance and is never stored.</p>
+ *
+ * <p>Component managers pack their components, so destroying one component can move another
+ * to a different instance. For this reason the cache is invalidated as a whole; invalidation is
+ * deferred to the next access so that repeated invalidations are free.</p>
+ */
+final class EntityInstanceCache {
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Queries the native component manager for the instance of an entity.
+     */
+    interface NativeLookup {
+        @EntityInstance
+        int getInstance(@Entity int entity);
+    }
+
+    @NonNull private final NativeLookup mNativeLookup;
+    // both null when the cache is disabled
+    @Nullable private int[] mKeys;
+    @Nullable private int[] mValues;
+    private int mSize;
+    private boolean mInvalid;
+
+    EntityInstanceCache(@NonNull NativeLookup nativeLookup) {
+        mNativeLookup = nativeLookup;
+    }
+
+    void setEnabled(boolean enabled) {
+        if (enabled) {
+            if (mKeys == null) {
+                mKeys = new int[INITIAL_CAPACITY];
+                mValues = new int[INITIAL_CAPACITY];
+                mSize = 0;
+                mInvalid = false;
+            }
+        } else {
+            mKeys = null;
+            mValues = null;
+            mSize = 0;
+        }
+    }
+
+    boolean isEnabled() {
+        return mKeys != null;
+    }
+
+    void invalidate() {
+        mInvalid = true;
+    }
+
+    /**
+     * @return the instance of <code>entity</code>, from the cache if possible
+     */
+    @EntityInstance
+    int lookup(@Entity int entity) {
+        if (mKeys == null) {
+            return mNativeLookup.getInstance(entity);
+        }
+        int instance = get(entity);
+        if (instance == 0) {
+            instance = mNativeLookup.getInstance(entity);
+            put(entity, instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Stores the instance of each of <code>entities</code> in <code>out</code>.
+     *
+     * @return <code>out</code>
+     */
+    @EntityInstance
+    @NonNull
+    int[] fill(@Entity @NonNull int[] entities, @EntityInstance @NonNull int[] out) {
+        if (out.length < entities.length) {
+            throw new ArrayIndexOutOfBoundsException(
+                    "Array length must be at least " + entities.length);
+        }
+        for (int i = 0; i < entities.length; i++) {
+            out[i] = lookup(entities[i]);
+        }
+        return out;
+    }
+
+    @EntityInstance
+    private int get(@Entity int entity) {
+        if (mInvalid) {
+            clear();
+            return 0;
+        }
+        if (entity == 0) {
+            return 0;
+        }
+        final int[] keys = mKeys;
+        final int mask = keys.length - 1;
+        for (int i = mix(entity) & mask; ; i = (i + 1) & mask) {
+            int k = keys[i];
+            if (k == entity) return mValues[i];
+            if (k == 0) return 0;
+        }
+    }
+
+    private void put(@Entity int entity, @EntityInstance int instance) {
+        if (mInvalid) {
+            clear();
+        }
+        if (entity == 0 || instance == 0) {
+            return;
+        }
+        // keep the load factor under 1/2
+        if ((mSize + 1) * 2 > mKeys.length) {
+            rehash(mKeys.length * 2);
+        }
+        final int[] keys = mKeys;
+        final int mask = keys.length - 1;
+        for (int i = mix(entity) & mask; ; i = (i + 1) & mask) {
+            int k = keys[i];
+            if (k == entity) {
+                mValues[i] = instance;
+                return;
+            }
+            if (k == 0) {
+                keys[i] = entity;
+                mValues[i] = instance;
+                mSize++;
+                return;
+            }
+        }
+    }
+
+    private void clear() {
+        if (mSize > 0) {
+            Arrays.fill(mKeys, 0);
+            mSize = 0;
+        }
+        mInvalid = false;
+    }
+
+    private void rehash(int capacity) {
+        int[] keys = mKeys;
+        int[] values = mValues;
+        mKeys = new int[capacity];
+        mValues = new int[capacity];
+        mSize = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) put(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * Scrambles the bits of an entity, for use as a hash.
+     */
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
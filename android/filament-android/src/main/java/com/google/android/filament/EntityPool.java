@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.filament;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of {@link Entity} handles backed by an {@link EntityManager}.
+ *
+ * <p>Systems that create and destroy many short-lived entities (particles, projectiles, ...)
+ * can acquire entities from an <code>EntityPool</code> instead of calling
+ * {@link EntityManager#create()} and {@link EntityManager#destroy(int)} for each of them.
+ * The pool reserves entities from the {@link EntityManager} in chunks with
+ * {@link EntityManager#create(int)} and keeps released entities on a free-list for reuse.
+ * Entities that don't fit in the pool anymore are returned to the {@link EntityManager} in
+ * batches with {@link EntityManager#destroy(int[])}.</p>
+ *
+ * <p>Components are not managed by the pool: all the components of an entity must be destroyed,
+ * for instance with {@link Engine#destroyEntity}, before the entity is released. A recycled
+ * entity keeps its handle, including its generation.</p>
+ *
+ * <p>Unlike most filament objects, an <code>EntityPool</code> can be used from multiple threads
+ * concurrently; the free-list is lock-free.</p>
+ *
+ * <pre>
+ * EntityPool pool = new EntityPool(EntityManager.get());
+ * int particle = pool.acquire();
+ * ...
+ * engine.destroyEntity(particle);
+ * pool.release(particle);
+ * ...
+ * pool.destroy();
+ * </pre>
+ *
+ * @see EntityManager
+ */
+public class EntityPool {
+    private static final int DEFAULT_CHUNK_SIZE = 256;
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    private static final int NIL = -1;
+
+    @NonNull private final EntityManager mEntityManager;
+    private final int mChunkSize;
+
+    // Slots hold a free entity in mEntities and a link in mNext. A slot is always on exactly one
+    // of two lock-free stacks: mFreeHead (slot holds an entity) or mEmptyHead (it doesn't).
+    // Heads pack a tag in the upper 32 bits and the top slot in the lower 32 bits; the tag is
+    // incremented on every update to prevent ABA issues.
+    @NonNull private final int[] mEntities;
+    @NonNull private final int[] mNext;
+    @NonNull private final AtomicLong mFreeHead;
+    @NonNull private final AtomicLong mEmptyHead;
+
+    @NonNull private final AtomicInteger mFreeCount = new AtomicInteger();
+    @NonNull private final AtomicLong mHitCount = new AtomicLong();
+    @NonNull private final AtomicLong mMissCount = new AtomicLong();
+
+    private volatile boolean mDebugChecksEnabled;
+    // entities on the free-list, only maintained while debug checks are enabled
+    @NonNull private final HashSet<Integer> mPooled = new HashSet<>();
+
+    /**
+     * Creates a pool with a default chunk size and capacity.
+     *
+     * @param entityManager the {@link EntityManager} entities are reserved from
+     */
+    public EntityPool(@NonNull EntityManager entityManager) {
+        this(entityManager, DEFAULT_CHUNK_SIZE, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param entityManager the {@link EntityManager} entities are reserved from
+     * @param chunkSize     number of entities reserved at once when the pool is empty
+     * @param capacity      maximum number of free entities kept by the pool, entities released
+     *                      past this limit are destroyed
+     */
+    public EntityPool(@NonNull EntityManager entityManager,
+            @IntRange(from = 1) int chunkSize, @IntRange(from = 1) int capacity) {
+        if (chunkSize < 1 || capacity < 1) {
+            throw new IllegalArgumentException("chunkSize and capacity must be at least 1");
+        }
+        mEntityManager = entityManager;
+        mChunkSize = Math.min(chunkSize, capacity + 1);
+        mEntities = new int[capacity];
+        mNext = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            mNext[i] = i + 1 < capacity ? i + 1 : NIL;
+        }
+        mFreeHead = new AtomicLong(pack(0, NIL));
+        mEmptyHead = new AtomicLong(pack(0, 0));
+    }
+
+    /**
+     * Enables or disables debug checks. When enabled, the pool verifies with
+     * {@link EntityManager#isAlive} that entities are still alive when they are released and
+     * acquired, which catches entities destroyed behind the pool's back. It also keeps track of
+     * the entities it holds, to catch entities released twice; only the entities that entered
+     * the pool while the checks were enabled are tracked. Disabled by default.
+     *
+     * @param enabled true to enable the checks
+     */
+    public void setDebugChecksEnabled(boolean enabled) {
+        synchronized (mPooled) {
+            mPooled.clear();
+            mDebugChecksEnabled = enabled;
+        }
+    }
+
+    /**
+     * @return true if debug checks are enabled
+     * @see #setDebugChecksEnabled
+     */
+    public boolean isDebugChecksEnabled() {
+        return mDebugChecksEnabled;
+    }
+
+    /**
+     * Acquires an entity from the pool, reserving a new chunk of entities from the
+     * {@link EntityManager} if the pool is empty.
+     *
+     * @return an alive {@link Entity}
+     */
+    @Entity
+    public int acquire() {
+        int slot = pop(mFreeHead);
+        if (slot != NIL) {
+            int entity = mEntities[slot];
+            push(mEmptyHead, slot);
+            mFreeCount.decrementAndGet();
+            mHitCount.incrementAndGet();
+            if (mDebugChecksEnabled) {
+                checkAlive(entity);
+                synchronized (mPooled) {
+                    mPooled.remove(entity);
+                }
+            }
+            return entity;
+        }
+        mMissCount.incrementAndGet();
+        int[] chunk = mEntityManager.create(mChunkSize);
+        if (mDebugChecksEnabled) {
+            synchronized (mPooled) {
+                for (int i = 1; i < chunk.length; i++) {
+                    mPooled.add(chunk[i]);
+                }
+            }
+        }
+        int[] overflow = recycle(chunk, 1, chunk.length);
+        if (overflow != null) {
+            mEntityManager.destroy(overflow);
+        }
+        return chunk[0];
+    }
+
+    /**
+     * Acquires as many entities as <code>out</code> can hold.
+     *
+     * @param out array receiving the entities
+     * @return <code>out</code>, for convenience
+     */
+    @Entity
+    @NonNull
+    public int[] acquire(@Entity @NonNull int[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = acquire();
+        }
+        return out;
+    }
+
+    /**
+     * Returns an entity to the pool. If the pool is full, the entity is destroyed.
+     *
+     * @param entity an {@link Entity} that has no components left
+     * @exception IllegalStateException with debug checks enabled, if the entity is not alive or
+     *            is already in the pool
+     */
+    public void release(@Entity int entity) {
+        if (mDebugChecksEnabled) {
+            checkReleased(entity);
+        }
+        int slot = pop(mEmptyHead);
+        if (slot == NIL) {
+            untrack(entity);
+            mEntityManager.destroy(entity);
+            return;
+        }
+        mEntities[slot] = entity;
+        push(mFreeHead, slot);
+        mFreeCount.incrementAndGet();
+    }
+
+    /**
+     * Returns entities to the pool. Entities that don't fit in the pool are destroyed with a single
+     * call to {@link EntityManager#destroy(int[])}.
+     *
+     * @param entities entities that have no components left
+     * @exception IllegalStateException with debug checks enabled, if an entity is not alive or
+     *            is already in the pool
+     */
+    public void release(@Entity @NonNull int[] entities) {
+        if (mDebugChecksEnabled) {
+            checkReleased(entities);
+        }
+        int[] overflow = recycle(entities, 0, entities.length);
+        if (overflow != null) {
+            mEntityManager.destroy(overflow);
+        }
+    }
+
+    /**
+     * Destroys all the free entities held by the pool with a single call to
+     * {@link EntityManager#destroy(int[])}. Entities currently acquired are not affected and can
+     * still be released later.
+     */
+    public void destroy() {
+        int[] entities = new int[mEntities.length];
+        int count = 0;
+        int slot;
+        while ((slot = pop(mFreeHead)) != NIL) {
+            entities[count++] = mEntities[slot];
+            push(mEmptyHead, slot);
+            mFreeCount.decrementAndGet();
+            untrack(entities[count - 1]);
+        }
+        if (count > 0) {
+            mEntityManager.destroy(Arrays.copyOf(entities, count));
+        }
+    }
+
+    /**
+     * @return the number of free entities currently held by the pool
+     */
+    public int getFreeCount() {
+        return mFreeCount.get();
+    }
+
+    /**
+     * @return the maximum number of free entities the pool can hold
+     */
+    public int getCapacity() {
+        return mEntities.length;
+    }
+
+    /**
+     * @return the number of calls to {@link #acquire()} served from the free-list
+     */
+    public long getHitCount() {
+        return mHitCount.get();
+    }
+
+    /**
+     * @return the number of calls to {@link #acquire()} that had to reserve a new chunk of
+     * entities from the {@link EntityManager}
+     */
+    public long getMissCount() {
+        return mMissCount.get();
+    }
+
+    /**
+     * Pushes <code>entities[start, end)</code> on the free-list.
+     *
+     * @return the entities that didn't fit, or null if they all did
+     */
+    @Nullable
+    private int[] recycle(@NonNull int[] entities, int start, int end) {
+        for (int i = start; i < end; i++) {
+            int slot = pop(mEmptyHead);
+            if (slot == NIL) {
+                for (int j = i; j < end; j++) {
+                    untrack(entities[j]);
+                }
+                return Arrays.copyOfRange(entities, i, end);
+            }
+            mEntities[slot] = entities[i];
+            push(mFreeHead, slot);
+            mFreeCount.incrementAndGet();
+        }
+        return null;
+    }
+
+    private void checkAlive(@Entity int entity) {
+        if (!mEntityManager.isAlive(entity)) {
+            throw new IllegalStateException("Entity " + entity + " is not alive");
+        }
+    }
+
+    // debug check of an entity about to be released, which then counts as pooled
+    private void checkReleased(@Entity int entity) {
+        checkAlive(entity);
+        synchronized (mPooled) {
+            if (!mPooled.add(entity)) {
+                throw new IllegalStateException("Entity " + entity + " released twice");
+            }
+        }
+    }
+
+    private void checkReleased(@Entity @NonNull int[] entities) {
+        for (int entity : entities) {
+            checkAlive(entity);
+        }
+        synchronized (mPooled) {
+            for (int i = 0; i < entities.length; i++) {
+                if (!mPooled.add(entities[i])) {
+                    for (int j = 0; j < i; j++) {
+                        mPooled.remove(entities[j]);
+                    }
+                    throw new IllegalStateException("Entity " + entities[i] + " released twice");
+                }
+            }
+        }
+    }
+
+    private void untrack(@Entity int entity) {
+        if (mDebugChecksEnabled) {
+            synchronized (mPooled) {
+                mPooled.remove(entity);
+            }
+        }
+    }
+
+    private int pop(@NonNull AtomicLong head) {
+        while (true) {
+            long current = head.get();
+            int slot = (int) current;
+            if (slot == NIL) {
+                return NIL;
+            }
+            long next = pack((int) (current >>> 32) + 1, mNext[slot]);
+            if (head.compareAndSet(current, next)) {
+                return slot;
+            }
+        }
+    }
+
+    private void push(@NonNull AtomicLong head, int slot) {
+        while (true) {
+            long current = head.get();
+            mNext[slot] = (int) current;
+            long next = pack((int) (current >>> 32) + 1, slot);
+            if (head.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private static long pack(int tag, int slot) {
+        return ((long) tag << 32) | (slot & 0xFFFFFFFFL);
+    }
+}
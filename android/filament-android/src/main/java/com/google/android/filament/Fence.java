@@ -17,6 +17,8 @@ package com.google.android.filament;
 
 import androidx.annotation.NonNull;
 
+import java.util.concurrent.Executor;
+
 public class Fence {
     private long mNativeObject;
 
@@ -55,6 +57,46 @@ public class Fence {
         }
     }
 
+    /**
+     * Returns a future completed once this <code>Fence</code> signals, without blocking.
+     *
+     * <p>The fence is checked by the {@link FencePoller#getDefault default} poller, whose
+     * {@link FencePoller#poll} must be called regularly, typically once per frame.</p>
+     *
+     * <p>The fence is waited on from the thread calling {@link FencePoller#poll}, so it must not
+     * be destroyed while the future is pending: wait until the future is done, or cancel it
+     * first.</p>
+     *
+     * @param executor runs the listeners of the future
+     * @return a future of the status of this fence
+     */
+    @NonNull
+    public FenceFuture toFuture(@NonNull Executor executor) {
+        return toFuture(FencePoller.getDefault(), executor);
+    }
+
+    /**
+     * Returns a future completed once this <code>Fence</code> signals, without blocking.
+     *
+     * <p>The fence must not be destroyed while the future is pending, see
+     * {@link #toFuture(Executor)}.</p>
+     *
+     * @param poller   the poller checking this fence
+     * @param executor runs the listeners of the future
+     * @return a future of the status of this fence
+     * @exception IllegalStateException if this fence was destroyed
+     * @see #toFuture(Executor)
+     */
+    @NonNull
+    public FenceFuture toFuture(@NonNull FencePoller poller, @NonNull Executor executor) {
+        if (mNativeObject == 0) {
+            throw new IllegalStateException("Calling method on destroyed Fence");
+        }
+        FenceFuture future = new FenceFuture(this, executor, poller);
+        poller.add(future);
+        return future;
+    }
+
     public static FenceStatus waitAndDestroy(@NonNull Fence fence, @NonNull Mode mode) {
         int nativeResult = nWaitAndDestroy(fence.getNativeObject(), mode.ordinal());
         switch (nativeResult) {
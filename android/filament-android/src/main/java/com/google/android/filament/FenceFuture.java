@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.filament;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The pending result of a {@link Fence}, completed by a {@link FencePoller} without blocking.
+ *
+ * <p>The result is {@link Fence.FenceStatus#CONDITION_SATISFIED CONDITION_SATISFIED} once the
+ * fence signals, or {@link Fence.FenceStatus#ERROR ERROR} if the backend reports an error while
+ * waiting. The fence must not be destroyed while the future is pending, see
+ * {@link Fence#toFuture}. Listeners run on the {@link Executor} given to {@link Fence#toFuture}
+ * once the result is known:</p>
+ *
+ * <pre>
+ * engine.createFence().toFuture(executor).addListener(new Runnable() {
+ *     public void run() { recycleUploadBuffers(); }
+ * });
+ * </pre>
+ *
+ * @see FencePoller
+ */
+public final class FenceFuture implements Future<Fence.FenceStatus> {
+    @NonNull private final Fence mFence;
+    @NonNull private final Executor mExecutor;
+    @NonNull private final FencePoller mPoller;
+    @NonNull private final CountDownLatch mDone = new CountDownLatch(1);
+
+    // guarded by this
+    @Nullable private ArrayList<Runnable> mListeners = new ArrayList<>();
+    @Nullable private Fence.FenceStatus mStatus;
+    private boolean mCancelled;
+
+    // used by FencePoller, mPollCount is guarded by its poll lock
+    final long mStartTime = System.nanoTime();
+    int mPollCount;
+
+    FenceFuture(@NonNull Fence fence, @NonNull Executor executor, @NonNull FencePoller poller) {
+        mFence = fence;
+        mExecutor = executor;
+        mPoller = poller;
+    }
+
+    /**
+     * @return the {@link Fence} this future waits for
+     */
+    @NonNull
+    public Fence getFence() {
+        return mFence;
+    }
+
+    /**
+     * Adds a listener run on this future's {@link Executor} once the result is known, or right
+     * away if it is already known. Listeners also run when the future is cancelled.
+     *
+     * @param listener the listener to run
+     * @return this <code>FenceFuture</code>, for chaining calls
+     */
+    @NonNull
+    public FenceFuture addListener(@NonNull Runnable listener) {
+        synchronized (this) {
+            if (mListeners != null) {
+                mListeners.add(listener);
+                return this;
+            }
+        }
+        mExecutor.execute(listener);
+        return this;
+    }
+
+    /**
+     * Stops polling the fence. The fence itself is not affected.
+     *
+     * @param mayInterruptIfRunning ignored, polling is never interrupted
+     * @return false if the result was already known
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        synchronized (this) {
+            if (mListeners == null) {
+                return false;
+            }
+            mCancelled = true;
+        }
+        mPoller.remove(this);
+        dispatch();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return mCancelled;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return mListeners == null;
+    }
+
+    /**
+     * Blocks until the fence signals. Prefer {@link #addListener} on threads that must not block.
+     */
+    @NonNull
+    @Override
+    public Fence.FenceStatus get() throws InterruptedException {
+        mDone.await();
+        return getStatus();
+    }
+
+    @NonNull
+    @Override
+    public Fence.FenceStatus get(long timeout, @NonNull TimeUnit unit)
+            throws InterruptedException, TimeoutException {
+        if (!mDone.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return getStatus();
+    }
+
+    @NonNull
+    private synchronized Fence.FenceStatus getStatus() {
+        if (mCancelled) {
+            throw new CancellationException();
+        }
+        return mStatus;
+    }
+
+    // called by FencePoller once the fence is no longer pending
+    void complete(@NonNull Fence.FenceStatus status) {
+        synchronized (this) {
+            if (mListeners == null) {
+                return;
+            }
+            mStatus = status;
+        }
+        dispatch();
+    }
+
+    private void dispatch() {
+        ArrayList<Runnable> listeners;
+        synchronized (this) {
+            listeners = mListeners;
+            mListeners = null;
+        }
+        mDone.countDown();
+        if (listeners != null) {
+            for (Runnable listener : listeners) {
+                mExecutor.execute(listener);
+            }
+        }
+    }
+}
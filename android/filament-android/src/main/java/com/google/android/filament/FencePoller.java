@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.filament;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Completes {@link FenceFuture}s by checking their fences without blocking.
+ *
+ * <p>Rather than blocking a thread per fence in {@link Fence#wait}, outstanding fences are
+ * checked together by {@link #poll}, typically once per frame, using
+ * <code>wait(Mode.DONT_FLUSH, 0)</code>. {@link Fence#toFuture(java.util.concurrent.Executor)}
+ * registers fences with the {@link #getDefault default} poller:</p>
+ *
+ * <pre>
+ * // once per frame, after Renderer.endFrame()
+ * FencePoller.getDefault().poll();
+ * </pre>
+ *
+ * <p>The poller records the latency of each fence, from its registration to its completion, in
+ * wall-clock time and in number of polls.</p>
+ *
+ * <p>All methods are thread-safe; concurrent calls to {@link #poll} are serialized.</p>
+ *
+ * <p>A fence is waited on by the thread calling {@link #poll}, so it must not be destroyed while
+ * its future is pending: cancel the future first, or wait until it is done.</p>
+ */
+public final class FencePoller {
+    /** Number of buckets of {@link #getPollLatencyHistogram}. */
+    public static final int POLL_LATENCY_BUCKET_COUNT = 8;
+
+    // number of the most recent latencies used by getLatencyNanos()
+    private static final int LATENCY_SAMPLE_COUNT = 256;
+
+    private static final FencePoller sDefault = new FencePoller();
+
+    // serializes poll(), also guards FenceFuture.mPollCount
+    @NonNull private final Object mPollLock = new Object();
+
+    // all the state below is guarded by this
+    @NonNull private final ArrayList<FenceFuture> mPending = new ArrayList<>();
+    @NonNull private final long[] mLatencySamples = new long[LATENCY_SAMPLE_COUNT];
+    private int mLatencySampleCount;
+    private int mLatencySampleNext;
+    @NonNull private final long[] mPollLatencyHistogram = new long[POLL_LATENCY_BUCKET_COUNT];
+    private long mCompletedCount;
+
+    /**
+     * Creates a poller. Most applications can use the {@link #getDefault default} poller.
+     */
+    public FencePoller() {
+    }
+
+    /**
+     * @return the poller used by {@link Fence#toFuture(java.util.concurrent.Executor)}
+     */
+    @NonNull
+    public static FencePoller getDefault() {
+        return sDefault;
+    }
+
+    synchronized void add(@NonNull FenceFuture future) {
+        mPending.add(future);
+    }
+
+    // waits for a concurrent poll() so the fence can be destroyed once its future is cancelled
+    void remove(@NonNull FenceFuture future) {
+        synchronized (mPollLock) {
+            synchronized (this) {
+                mPending.remove(future);
+            }
+        }
+    }
+
+    /**
+     * Checks all the outstanding fences once, without blocking, and completes the futures of
+     * the fences that signaled. Listeners run on their executors after this poller's state is
+     * updated.
+     */
+    public void poll() {
+        synchronized (mPollLock) {
+            pollLocked();
+        }
+    }
+
+    private void pollLocked() {
+        FenceFuture[] pending;
+        synchronized (this) {
+            if (mPending.isEmpty()) {
+                return;
+            }
+            pending = mPending.toArray(new FenceFuture[0]);
+        }
+
+        ArrayList<FenceFuture> completed = new ArrayList<>();
+        ArrayList<Fence.FenceStatus> statuses = new ArrayList<>();
+        for (FenceFuture future : pending) {
+            Fence.FenceStatus status = future.getFence().wait(Fence.Mode.DONT_FLUSH, 0);
+            future.mPollCount++;
+            if (status != Fence.FenceStatus.TIMEOUT_EXPIRED) {
+                completed.add(future);
+                statuses.add(status);
+            }
+        }
+
+        if (completed.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (this) {
+            for (FenceFuture future : completed) {
+                if (!mPending.remove(future)) {
+                    continue; // cancelled in the meantime
+                }
+                mLatencySamples[mLatencySampleNext] = now - future.mStartTime;
+                mLatencySampleNext = (mLatencySampleNext + 1) % LATENCY_SAMPLE_COUNT;
+                mLatencySampleCount = Math.min(mLatencySampleCount + 1, LATENCY_SAMPLE_COUNT);
+                mPollLatencyHistogram[
+                        Math.min(future.mPollCount, POLL_LATENCY_BUCKET_COUNT) - 1]++;
+                mCompletedCount++;
+            }
+        }
+        for (int i = 0; i < completed.size(); i++) {
+            completed.get(i).complete(statuses.get(i));
+        }
+    }
+
+    /**
+     * @return the number of fences waiting to signal
+     */
+    public synchronized int getPendingCount() {
+        return mPending.size();
+    }
+
+    /**
+     * @return the number of fences that completed since this poller was created
+     */
+    public synchronized long getCompletedCount() {
+        return mCompletedCount;
+    }
+
+    /**
+     * Returns a percentile of the wall-clock latency of the most recently completed fences, from
+     * the call to {@link Fence#toFuture} to the {@link #poll} that saw the fence signaled.
+     *
+     * @param percentile the percentile, between 0 and 1. For instance 0.5 is the median.
+     * @return the latency in nanoseconds, or 0 if no fence completed yet
+     */
+    public long getLatencyNanos(float percentile) {
+        long[] samples;
+        synchronized (this) {
+            samples = Arrays.copyOf(mLatencySamples, mLatencySampleCount);
+        }
+        if (samples.length == 0) {
+            return 0;
+        }
+        Arrays.sort(samples);
+        int index = Math.round(Math.max(0.0f, Math.min(1.0f, percentile)) * (samples.length - 1));
+        return samples[index];
+    }
+
+    /**
+     * Returns the distribution of the latency of the completed fences in number of polls.
+     * Bucket <code>i</code> counts the fences that completed on their <code>i+1</code>-th poll;
+     * the last bucket also counts the fences that took longer.
+     *
+     * @param out an array of at least {@link #POLL_LATENCY_BUCKET_COUNT} elements, or null
+     * @return <code>out</code>, or a new array if <code>out</code> was null
+     */
+    @NonNull
+    public synchronized long[] getPollLatencyHistogram(@Nullable long[] out) {
+        if (out == null) {
+            out = new long[POLL_LATENCY_BUCKET_COUNT];
+        } else if (out.length < POLL_LATENCY_BUCKET_COUNT) {
+            throw new ArrayIndexOutOfBoundsException(
+                    "Array length must be at least " + POLL_LATENCY_BUCKET_COUNT);
+        }
+        System.arraycopy(mPollLatencyHistogram, 0, out, 0, POLL_LATENCY_BUCKET_COUNT);
+        return out;
+    }
+}
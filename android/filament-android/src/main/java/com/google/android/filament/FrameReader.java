@@ -0,0 +1,515 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.filament;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reads back rendered frames continuously, with several read-backs in flight.
+ *
+ * <p>A <code>FrameReader</code> owns a fixed number of direct buffers, each with the descriptor
+ * and callback of its read-backs, which are reused from frame to frame: capturing a frame only
+ * allocates its small {@link PendingFrame} and {@link Frame} objects. Each call to
+ * {@link #read}, made within a frame after {@link Renderer#render}, issues a
+ * {@link Renderer#readPixels} into a free buffer and returns a {@link PendingFrame}. Once the
+ * read-back completes, the pending frame yields a {@link Frame}: a lease on the buffer, which
+ * returns to the reader when closed.</p>
+ *
+ * <pre>
+ * FrameReader reader = new FrameReader(renderer, width, height, 3);
+ *
+ * // each frame
+ * if (renderer.beginFrame(swapChain, frameTimeNanos)) {
+ *     renderer.render(view);
+ *     FrameReader.PendingFrame pending = reader.read();
+ *     if (pending != null) {
+ *         pending.addListener(new Runnable() {
+ *             public void run() {
+ *                 try (FrameReader.Frame frame = pending.getNow()) {
+ *                     encoder.encode(frame.getBuffer());
+ *                 }
+ *             }
+ *         });
+ *     }
+ *     renderer.endFrame();
+ * }
+ * </pre>
+ *
+ * <p>When all the buffers are in flight or leased, {@link #read} skips the frame and returns
+ * null rather than stalling; {@link #getDroppedFrameCount} reports how often this happens.
+ * Frames that are never closed are never reused.</p>
+ *
+ * <p>{@link #read} must be called on the thread of the {@link Engine}; leases can be closed from
+ * any thread.</p>
+ */
+public class FrameReader {
+    @NonNull private final Renderer mRenderer;
+    private final int mWidth;
+    private final int mHeight;
+    @NonNull private final Texture.Format mFormat;
+    @NonNull private final Texture.Type mType;
+    private final int mByteCount;
+    @NonNull private final Object mHandler;
+
+    @Nullable private RenderTarget mRenderTarget;
+    private int mInterval = 1;
+    private long mFrameNumber;
+
+    // all the state below is guarded by mLock
+    @NonNull private final Object mLock = new Object();
+    @NonNull private final ArrayDeque<Slot> mFreeSlots = new ArrayDeque<>();
+    private final int mBufferCount;
+    private int mInFlightCount;
+    private long mDroppedFrameCount;
+    private long mCompletedFrameCount;
+
+    /**
+     * A frame read back into one of the buffers of a {@link FrameReader}. The buffer returns to
+     * the reader when the frame is closed.
+     */
+    public static final class Frame implements AutoCloseable {
+        @NonNull private final FrameReader mReader;
+        @Nullable private Slot mSlot;
+        private final long mFrameNumber;
+        private final long mTimestampNanos;
+
+        Frame(@NonNull FrameReader reader, @NonNull Slot slot, long frameNumber,
+                long timestampNanos) {
+            mReader = reader;
+            mSlot = slot;
+            mFrameNumber = frameNumber;
+            mTimestampNanos = timestampNanos;
+        }
+
+        /**
+         * @return the pixels of the frame, tightly packed rows from the bottom row up, in the
+         *         format and type of the reader
+         * @exception IllegalStateException if the frame is closed
+         */
+        @NonNull
+        public synchronized ByteBuffer getBuffer() {
+            if (mSlot == null) {
+                throw new IllegalStateException("Calling method on closed Frame");
+            }
+            return mSlot.buffer;
+        }
+
+        /**
+         * @return the index of the call to {@link FrameReader#read} that captured this frame,
+         *         counting the skipped calls
+         */
+        public long getFrameNumber() {
+            return mFrameNumber;
+        }
+
+        /**
+         * @return the {@link System#nanoTime} at which the read-back was issued
+         */
+        public long getTimestampNanos() {
+            return mTimestampNanos;
+        }
+
+        /**
+         * Returns the buffer to the {@link FrameReader}. The frame must not be used after this
+         * call. This can be called any number of times.
+         */
+        @Override
+        public void close() {
+            Slot slot;
+            synchronized (this) {
+                slot = mSlot;
+                mSlot = null;
+            }
+            if (slot != null) {
+                mReader.recycle(slot);
+            }
+        }
+    }
+
+    /**
+     * The result of a read-back in flight, completed with a {@link Frame} once the read-back is
+     * done.
+     */
+    public static final class PendingFrame implements Future<Frame> {
+        // all the state below is guarded by this, which is also notified once done
+        @Nullable private Runnable mListener;
+        @Nullable private ArrayList<Runnable> mMoreListeners;
+        @Nullable private Frame mFrame;
+        private boolean mDone;
+        private boolean mCancelled;
+
+        PendingFrame() {
+        }
+
+        /**
+         * Adds a listener run once the frame is available, on the handler of the
+         * {@link FrameReader}. If the frame is already available, the listener runs right away
+         * on the calling thread.
+         *
+         * @param listener the listener to run
+         * @return this <code>PendingFrame</code>, for chaining calls
+         */
+        @NonNull
+        public PendingFrame addListener(@NonNull Runnable listener) {
+            synchronized (this) {
+                if (!mDone) {
+                    if (mListener == null) {
+                        mListener = listener;
+                    } else {
+                        if (mMoreListeners == null) {
+                            mMoreListeners = new ArrayList<>();
+                        }
+                        mMoreListeners.add(listener);
+                    }
+                    return this;
+                }
+            }
+            listener.run();
+            return this;
+        }
+
+        /**
+         * @return the frame, which the caller must close
+         * @exception IllegalStateException if the read-back is not done yet
+         * @exception CancellationException if this pending frame was cancelled
+         */
+        @NonNull
+        public synchronized Frame getNow() {
+            if (mCancelled) {
+                throw new CancellationException();
+            }
+            if (mFrame == null) {
+                throw new IllegalStateException("Frame not read back yet");
+            }
+            return mFrame;
+        }
+
+        /**
+         * Gives up on the frame. Listeners run and {@link #get} throws right away, but the
+         * read-back itself can't be aborted: its buffer stays in flight, and counts towards
+         * {@link FrameReader#getInFlightCount}, until the read-back completes. Only then is the
+         * frame closed and its buffer returned to the {@link FrameReader}.
+         *
+         * @param mayInterruptIfRunning ignored, read-backs can't be interrupted
+         * @return false if the frame was already available
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            synchronized (this) {
+                if (mDone) {
+                    return false;
+                }
+                mCancelled = true;
+                mDone = true;
+                notifyAll();
+            }
+            runListeners();
+            return true;
+        }
+
+        @Override
+        public synchronized boolean isCancelled() {
+            return mCancelled;
+        }
+
+        @Override
+        public synchronized boolean isDone() {
+            return mDone;
+        }
+
+        /**
+         * Blocks until the frame is available. The read-back only progresses as the
+         * {@link Engine}'s thread renders frames, so this must not be called on that thread.
+         *
+         * @return the frame, which the caller must close
+         */
+        @NonNull
+        @Override
+        public synchronized Frame get() throws InterruptedException {
+            while (!mDone) {
+                wait();
+            }
+            return getNow();
+        }
+
+        @NonNull
+        @Override
+        public synchronized Frame get(long timeout, @NonNull TimeUnit unit)
+                throws InterruptedException, TimeoutException {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!mDone) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TimeoutException();
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            return getNow();
+        }
+
+        void complete(@NonNull Frame frame) {
+            synchronized (this) {
+                if (mCancelled) {
+                    frame.close();
+                    return;
+                }
+                // publish the frame and mark this done atomically, so that a concurrent
+                // cancel() can't leave the frame unclosed
+                mFrame = frame;
+                mDone = true;
+                notifyAll();
+            }
+            runListeners();
+        }
+
+        private void runListeners() {
+            Runnable listener;
+            ArrayList<Runnable> moreListeners;
+            synchronized (this) {
+                listener = mListener;
+                moreListeners = mMoreListeners;
+                mListener = null;
+                mMoreListeners = null;
+            }
+            if (listener != null) {
+                listener.run();
+            }
+            if (moreListeners != null) {
+                for (Runnable l : moreListeners) {
+                    l.run();
+                }
+            }
+        }
+    }
+
+    // a buffer of the reader, with the descriptor and callback reused by its read-backs
+    private final class Slot implements Runnable {
+        @NonNull final ByteBuffer buffer;
+        @NonNull final Texture.PixelBufferDescriptor descriptor;
+
+        // the read-back in flight, guarded by mLock
+        @Nullable PendingFrame pending;
+        long frameNumber;
+        long timestamp;
+
+        Slot(@NonNull ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.descriptor = new Texture.PixelBufferDescriptor(
+                    buffer, mFormat, mType, 1, 0, 0, 0, mHandler, this);
+        }
+
+        // called on the handler once the read-back completes
+        @Override
+        public void run() {
+            PendingFrame pending;
+            long frameNumber;
+            long timestamp;
+            synchronized (mLock) {
+                pending = this.pending;
+                frameNumber = this.frameNumber;
+                timestamp = this.timestamp;
+                this.pending = null;
+                mInFlightCount--;
+                mCompletedFrameCount++;
+            }
+            pending.complete(new Frame(FrameReader.this, this, frameNumber, timestamp));
+        }
+    }
+
+    /**
+     * Creates a reader of {@link Texture.Format#RGBA RGBA} {@link Texture.Type#UBYTE UBYTE}
+     * pixels whose listeners run on the thread that completes the read-backs.
+     *
+     * @param renderer    the renderer to read back from
+     * @param width       width of the region to read back
+     * @param height      height of the region to read back
+     * @param bufferCount number of buffers, i.e. of frames in flight or leased at once
+     */
+    public FrameReader(@NonNull Renderer renderer, @IntRange(from = 1) int width,
+            @IntRange(from = 1) int height, @IntRange(from = 1) int bufferCount) {
+        this(renderer, width, height, Texture.Format.RGBA, Texture.Type.UBYTE, bufferCount,
+                DirectExecutor.INSTANCE);
+    }
+
+    /**
+     * Creates a reader.
+     *
+     * @param renderer    the renderer to read back from
+     * @param width       width of the region to read back
+     * @param height      height of the region to read back
+     * @param format      format of the pixels, see {@link Renderer#readPixels}
+     * @param type        type of the pixels, see {@link Renderer#readPixels}
+     * @param bufferCount number of buffers, i.e. of frames in flight or leased at once
+     * @param handler     an {@link java.util.concurrent.Executor Executor}, on Android this can
+     *                    also be a {@link android.os.Handler Handler}. Runs the completion of the
+     *                    read-backs and the listeners of the {@link PendingFrame}s.
+     */
+    public FrameReader(@NonNull Renderer renderer, @IntRange(from = 1) int width,
+            @IntRange(from = 1) int height, @NonNull Texture.Format format,
+            @NonNull Texture.Type type, @IntRange(from = 1) int bufferCount,
+            @NonNull Object handler) {
+        if (width < 1 || height < 1 || bufferCount < 1) {
+            throw new IllegalArgumentException("width, height and bufferCount must be at " +
+                    "least 1: " + width + ", " + height + ", " + bufferCount);
+        }
+        long byteCount = (long) width * height * Texture.getPixelSize(format, type);
+        if (byteCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Frames larger than 2 GiB");
+        }
+        mRenderer = renderer;
+        mWidth = width;
+        mHeight = height;
+        mFormat = format;
+        mType = type;
+        mByteCount = (int) byteCount;
+        mHandler = handler;
+        mBufferCount = bufferCount;
+        for (int i = 0; i < bufferCount; i++) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(mByteCount);
+            buffer.order(ByteOrder.nativeOrder());
+            mFreeSlots.add(new Slot(buffer));
+        }
+    }
+
+    /**
+     * Sets the {@link RenderTarget} to read back from, or <code>null</code> to read back from
+     * the {@link SwapChain} of the renderer. Defaults to <code>null</code>.
+     *
+     * @param renderTarget the render target to read back from
+     */
+    public void setRenderTarget(@Nullable RenderTarget renderTarget) {
+        mRenderTarget = renderTarget;
+    }
+
+    /**
+     * Reads back every <code>interval</code>-th call to {@link #read} only, for instance 2 to
+     * capture at 30 fps while rendering at 60 fps. Defaults to 1.
+     *
+     * @param interval number of calls to {@link #read} between read-backs, at least 1
+     */
+    public void setInterval(@IntRange(from = 1) int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval must be at least 1: " + interval);
+        }
+        mInterval = interval;
+    }
+
+    /**
+     * Reads back the bottom-left region of the current frame, if this frame is to be captured
+     * and a buffer is free. Must be called within a frame, after {@link Renderer#render}.
+     *
+     * @return the pending frame, or <code>null</code> if this frame is skipped because of the
+     *         interval or because all the buffers are in use
+     */
+    @Nullable
+    public PendingFrame read() {
+        final long frameNumber = mFrameNumber++;
+        if (frameNumber % mInterval != 0) {
+            return null;
+        }
+
+        final PendingFrame pending;
+        final Slot slot;
+        synchronized (mLock) {
+            slot = mFreeSlots.pollFirst();
+            if (slot == null) {
+                mDroppedFrameCount++;
+                return null;
+            }
+            mInFlightCount++;
+            pending = new PendingFrame();
+            slot.pending = pending;
+            slot.frameNumber = frameNumber;
+            slot.timestamp = System.nanoTime();
+        }
+
+        slot.buffer.clear();
+        try {
+            if (mRenderTarget != null) {
+                mRenderer.readPixels(mRenderTarget, 0, 0, mWidth, mHeight, slot.descriptor);
+            } else {
+                mRenderer.readPixels(0, 0, mWidth, mHeight, slot.descriptor);
+            }
+        } catch (RuntimeException e) {
+            synchronized (mLock) {
+                mInFlightCount--;
+                slot.pending = null;
+                mFreeSlots.addFirst(slot);
+            }
+            throw e;
+        }
+        return pending;
+    }
+
+    /**
+     * @return the size in bytes of a frame
+     */
+    public int getFrameByteCount() {
+        return mByteCount;
+    }
+
+    /**
+     * @return the number of buffers of this reader
+     */
+    public int getBufferCount() {
+        return mBufferCount;
+    }
+
+    /**
+     * @return the number of read-backs issued and not completed yet
+     */
+    public int getInFlightCount() {
+        synchronized (mLock) {
+            return mInFlightCount;
+        }
+    }
+
+    /**
+     * @return the number of frames skipped by {@link #read} because no buffer was free
+     */
+    public long getDroppedFrameCount() {
+        synchronized (mLock) {
+            return mDroppedFrameCount;
+        }
+    }
+
+    /**
+     * @return the number of completed read-backs
+     */
+    public long getCompletedFrameCount() {
+        synchronized (mLock) {
+            return mCompletedFrameCount;
+        }
+    }
+
+    void recycle(@NonNull Slot slot) {
+        synchronized (mLock) {
+            mFreeSlots.addLast(slot);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.filament;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Collects CPU timings of the frames of a {@link Renderer}.
+ *
+ * <p>Once set with {@link Renderer#setFrameStats}, the renderer timestamps its calls to
+ * {@link Renderer#beginFrame}, {@link Renderer#render} and {@link Renderer#endFrame}. The
+ * timings are accumulated in fixed-size histograms, so recording never allocates. Each
+ * {@link Metric} can be summarized (count, mean, p50, p90, p99 and max) at any time with
+ * {@link #getSummary}, or after each frame from a {@link Listener}.</p>
+ *
+ * <pre>
+ * FrameStats stats = new FrameStats();
+ * renderer.setFrameStats(stats);
+ * ...
+ * FrameStats.Summary render = stats.getSummary(FrameStats.Metric.RENDER, null);
+ * Log.d(TAG, "render p99: " + render.p99Nanos / 1e6 + " ms, skipped frames: " +
+ *         stats.getSkippedFrameCount());
+ * </pre>
+ *
+ * <p>Histograms have a resolution of {@link #BUCKET_WIDTH_NANOS}, up to
+ * {@link #MAX_TRACKED_NANOS}; longer samples are reported as that value in percentiles, but
+ * the maximum is always exact.</p>
+ *
+ * <p>Recording happens on the thread of the {@link Engine}; summaries can be read from any
+ * thread.</p>
+ */
+public class FrameStats {
+    /** Resolution of the histograms. */
+    public static final long BUCKET_WIDTH_NANOS = 50_000;
+    /** Largest duration tracked precisely by the histograms. */
+    public static final long MAX_TRACKED_NANOS = 100_000_000;
+
+    private static final int BUCKET_COUNT = (int) (MAX_TRACKED_NANOS / BUCKET_WIDTH_NANOS) + 1;
+
+    /**
+     * A timing measured by {@link FrameStats}.
+     */
+    public enum Metric {
+        /** Duration of {@link Renderer#beginFrame}, including skipped frames. */
+        BEGIN_FRAME,
+        /** Duration of each call to {@link Renderer#render}. */
+        RENDER,
+        /** Duration of {@link Renderer#endFrame}. */
+        END_FRAME,
+        /**
+         * CPU time of a frame, from the start of {@link Renderer#beginFrame} to the end of
+         * {@link Renderer#endFrame}.
+         */
+        CPU_FRAME,
+        /** Time between the starts of two consecutive drawn frames. */
+        FRAME_INTERVAL,
+        /**
+         * Time from the end of {@link Renderer#endFrame} to the {@link SwapChain}'s frame
+         * completed callback, only measured with {@link #monitorFrameCompletion}. Only the Metal
+         * backend delivers frame completed callbacks: with other backends, including all the
+         * Android backends, this metric has no samples.
+         */
+        FRAME_COMPLETION,
+    }
+
+    /**
+     * Summary of the samples of a {@link Metric}. All durations are in nanoseconds.
+     */
+    public static class Summary {
+        public long count;
+        public long meanNanos;
+        public long p50Nanos;
+        public long p90Nanos;
+        public long p99Nanos;
+        public long maxNanos;
+    }
+
+    /**
+     * Notified after each frame.
+     */
+    public interface Listener {
+        /**
+         * Called on the thread of the {@link Engine} at the end of {@link Renderer#endFrame}.
+         * Keep it lightweight, for instance by summarizing only every few frames.
+         *
+         * @param stats the <code>FrameStats</code> that recorded the frame
+         */
+        void onFrame(@NonNull FrameStats stats);
+    }
+
+    // all the state below is guarded by this
+    @NonNull private final Histogram[] mHistograms = new Histogram[Metric.values().length];
+    private long mFrameCount;
+    private long mSkippedFrameCount;
+    private long mFrameStart;
+    private long mPreviousFrameStart;
+    // ends of the frames whose completion callback is pending, once monitorFrameCompletion()
+    // was called
+    private boolean mMonitoringCompletion;
+    @NonNull private final long[] mPendingEnds = new long[16];
+    private int mPendingEndFirst;
+    private int mPendingEndCount;
+
+    @Nullable private volatile Listener mListener;
+
+    private static final class Histogram {
+        @NonNull final int[] buckets = new int[BUCKET_COUNT];
+        long count;
+        long sum;
+        long max;
+
+        void record(long nanos) {
+            nanos = Math.max(0, nanos);
+            buckets[(int) (Math.min(nanos, MAX_TRACKED_NANOS) / BUCKET_WIDTH_NANOS)]++;
+            count++;
+            sum += nanos;
+            max = Math.max(max, nanos);
+        }
+
+        // upper bound of the bucket holding the given percentile
+        long percentile(float percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min((i + 1) * BUCKET_WIDTH_NANOS, max);
+                }
+            }
+            return max;
+        }
+
+        void reset() {
+            Arrays.fill(buckets, 0);
+            count = 0;
+            sum = 0;
+            max = 0;
+        }
+    }
+
+    /**
+     * Creates an empty <code>FrameStats</code>, to set on a {@link Renderer} with
+     * {@link Renderer#setFrameStats}.
+     */
+    public FrameStats() {
+        for (int i = 0; i < mHistograms.length; i++) {
+            mHistograms[i] = new Histogram();
+        }
+    }
+
+    /**
+     * Sets a listener notified after each frame, or <code>null</code> to remove it.
+     *
+     * @param listener the listener
+     */
+    public void setListener(@Nullable Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Measures {@link Metric#FRAME_COMPLETION} by setting the frame completed callback of a
+     * {@link SwapChain}.
+     *
+     * <p>A <code>SwapChain</code> has a single frame completed callback, which this method
+     * replaces: an application that needs its own callback must pass it to
+     * {@link #monitorFrameCompletion(SwapChain, Runnable)} instead.</p>
+     *
+     * <p>Only the Metal backend delivers frame completed callbacks, see
+     * {@link SwapChain#setFrameCompletedCallback}. With other backends, including all the Android
+     * backends, {@link Metric#FRAME_COMPLETION} has no samples.</p>
+     *
+     * @param swapChain the {@link SwapChain} the frames are rendered to
+     */
+    public void monitorFrameCompletion(@NonNull SwapChain swapChain) {
+        monitorFrameCompletion(swapChain, null);
+    }
+
+    /**
+     * Measures {@link Metric#FRAME_COMPLETION} by setting the frame completed callback of a
+     * {@link SwapChain}, which also runs the application's own callback.
+     *
+     * @param swapChain the {@link SwapChain} the frames are rendered to
+     * @param callback  run on the thread of the {@link Engine} after each frame completion is
+     *                  recorded, or <code>null</code>
+     * @see #monitorFrameCompletion(SwapChain)
+     */
+    public void monitorFrameCompletion(@NonNull SwapChain swapChain,
+            @Nullable final Runnable callback) {
+        synchronized (this) {
+            mMonitoringCompletion = true;
+        }
+        swapChain.setFrameCompletedCallback(DirectExecutor.INSTANCE, new Runnable() {
+            @Override
+            public void run() {
+                onFrameCompleted(System.nanoTime());
+                if (callback != null) {
+                    callback.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Summarizes the samples of a metric recorded since this <code>FrameStats</code> was
+     * created or reset.
+     *
+     * @param metric the metric to summarize
+     * @param out    a {@link Summary} to reuse, or <code>null</code> to allocate a new one
+     * @return <code>out</code>, or a new {@link Summary} if <code>out</code> was null
+     */
+    @NonNull
+    public synchronized Summary getSummary(@NonNull Metric metric, @Nullable Summary out) {
+        if (out == null) {
+            out = new Summary();
+        }
+        Histogram histogram = mHistograms[metric.ordinal()];
+        out.count = histogram.count;
+        out.meanNanos = histogram.count > 0 ? histogram.sum / histogram.count : 0;
+        out.p50Nanos = histogram.percentile(0.50f);
+        out.p90Nanos = histogram.percentile(0.90f);
+        out.p99Nanos = histogram.percentile(0.99f);
+        out.maxNanos = histogram.max;
+        return out;
+    }
+
+    /**
+     * @return the number of drawn frames, i.e. frames for which {@link Renderer#beginFrame}
+     *         returned true
+     */
+    public synchronized long getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * @return the number of skipped frames, i.e. frames for which {@link Renderer#beginFrame}
+     *         returned false
+     */
+    public synchronized long getSkippedFrameCount() {
+        return mSkippedFrameCount;
+    }
+
+    /**
+     * Clears all the samples and counts.
+     */
+    public synchronized void reset() {
+        for (Histogram histogram : mHistograms) {
+            histogram.reset();
+        }
+        mFrameCount = 0;
+        mSkippedFrameCount = 0;
+        mPreviousFrameStart = 0;
+        mPendingEndCount = 0;
+    }
+
+    synchronized void onBeginFrame(long start, long end, boolean drawn) {
+        mHistograms[Metric.BEGIN_FRAME.ordinal()].record(end - start);
+        if (!drawn) {
+            mSkippedFrameCount++;
+            return;
+        }
+        mFrameCount++;
+        if (mPreviousFrameStart != 0) {
+            mHistograms[Metric.FRAME_INTERVAL.ordinal()].record(start - mPreviousFrameStart);
+        }
+        mPreviousFrameStart = start;
+        mFrameStart = start;
+    }
+
+    synchronized void onRender(long start, long end) {
+        mHistograms[Metric.RENDER.ordinal()].record(end - start);
+    }
+
+    void onEndFrame(long start, long end) {
+        synchronized (this) {
+            mHistograms[Metric.END_FRAME.ordinal()].record(end - start);
+            if (mFrameStart != 0) {
+                mHistograms[Metric.CPU_FRAME.ordinal()].record(end - mFrameStart);
+                mFrameStart = 0;
+            }
+            if (mMonitoringCompletion) {
+                if (mPendingEndCount == mPendingEnds.length) {
+                    // callbacks are not delivered, drop the oldest frame
+                    mPendingEndFirst = (mPendingEndFirst + 1) % mPendingEnds.length;
+                    mPendingEndCount--;
+                }
+                mPendingEnds[(mPendingEndFirst + mPendingEndCount) % mPendingEnds.length] = end;
+                mPendingEndCount++;
+            }
+        }
+        Listener listener = mListener;
+        if (listener != null) {
+            listener.onFrame(this);
+        }
+    }
+
+    synchronized void onFrameCompleted(long time) {
+        if (mPendingEndCount == 0) {
+            return;
+        }
+        long end = mPendingEnds[mPendingEndFirst];
+        mPendingEndFirst = (mPendingEndFirst + 1) % mPendingEnds.length;
+        mPendingEndCount--;
+        mHistograms[Metric.FRAME_COMPLETION.ordinal()].record(time - end);
+    }
+}
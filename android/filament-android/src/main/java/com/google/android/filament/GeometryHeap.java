@@ -0,0 +1,642 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.filament;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Packs the geometry of many meshes into a single {@link VertexBuffer} and {@link IndexBuffer}.
+ *
+ * <p>Giving each small mesh its own pair of buffers costs a driver object per buffer and
+ * fragments GPU memory. A <code>GeometryHeap</code> instead sub-allocates ranges of vertices and
+ * indices from large buffers: the vertex data lives in one {@link BufferObject} per vertex
+ * buffer slot, and the indices in one shared <code>IndexBuffer</code>. Each mesh is described by
+ * an {@link Allocation}, which gives the offset and count to use with
+ * {@link RenderableManager.Builder#geometry(int, RenderableManager.PrimitiveType, VertexBuffer,
+ * IndexBuffer, int, int, int, int)}.</p>
+ *
+ * <p>Indices are given relative to the first vertex of their allocation; the heap rebases them
+ * when they are uploaded.</p>
+ *
+ * <pre>
+ * VertexBuffer.Builder layout = new VertexBuffer.Builder()
+ *         .bufferCount(1)
+ *         .attribute(VertexAttribute.POSITION, 0, AttributeType.FLOAT3, 0, 12);
+ * GeometryHeap heap = new GeometryHeap(engine, layout, 65536, IndexType.USHORT, 196608);
+ *
+ * GeometryHeap.Allocation mesh = heap.allocate(vertexCount, indexCount);
+ * heap.setVertices(mesh, 0, positions);
+ * heap.setIndices(mesh, indices);
+ * heap.geometry(renderableBuilder, 0, PrimitiveType.TRIANGLES, mesh);
+ * </pre>
+ *
+ * <p>Freed ranges are reused by later allocations. {@link #compact} moves the live allocations
+ * to the start of the buffers, so that large allocations can succeed again; it requires
+ * updating the renderables that use the moved allocations. To support compaction, the heap keeps
+ * a CPU-side copy of its content.</p>
+ *
+ * <p>Like the {@link Engine}, a <code>GeometryHeap</code> is not thread-safe.</p>
+ */
+public class GeometryHeap {
+    @NonNull private final Engine mEngine;
+    @NonNull private final VertexBuffer mVertexBuffer;
+    @NonNull private final IndexBuffer mIndexBuffer;
+    @NonNull private final BufferObject[] mBufferObjects;
+    @NonNull private final int[] mStrides;
+    private final int mIndexSize;
+
+    // CPU-side copies of the content, used by compact()
+    @NonNull private final ByteBuffer[] mVertexData;
+    @NonNull private final ByteBuffer mIndexData;
+
+    @NonNull private final RangeAllocator mVertexRanges;
+    @NonNull private final RangeAllocator mIndexRanges;
+    @NonNull private final ArrayList<Allocation> mAllocations = new ArrayList<>();
+    @NonNull private final StagingBufferPool mStagingPool = new StagingBufferPool();
+
+    /**
+     * A range of vertices and a range of indices allocated by a {@link GeometryHeap}.
+     */
+    public static final class Allocation {
+        private int mVertexOffset;
+        private final int mVertexCount;
+        private int mIndexOffset;
+        private final int mIndexCount;
+        @Nullable private GeometryHeap mHeap;
+        // set by compact()
+        private boolean mMoved;
+
+        Allocation(@NonNull GeometryHeap heap, int vertexOffset, int vertexCount,
+                int indexOffset, int indexCount) {
+            mHeap = heap;
+            mVertexOffset = vertexOffset;
+            mVertexCount = vertexCount;
+            mIndexOffset = indexOffset;
+            mIndexCount = indexCount;
+        }
+
+        /** @return index of the first vertex of this allocation in the vertex buffer */
+        public int getVertexOffset() {
+            return mVertexOffset;
+        }
+
+        /** @return number of vertices of this allocation */
+        public int getVertexCount() {
+            return mVertexCount;
+        }
+
+        /**
+         * @return index of the first index of this allocation in the index buffer, i.e. the
+         *         <code>offset</code> argument of <code>geometry()</code>
+         */
+        public int getIndexOffset() {
+            return mIndexOffset;
+        }
+
+        /**
+         * @return number of indices of this allocation, i.e. the <code>count</code> argument of
+         *         <code>geometry()</code>
+         */
+        public int getIndexCount() {
+            return mIndexCount;
+        }
+
+        /** @return the smallest index value used by this allocation */
+        public int getMinIndex() {
+            return mVertexOffset;
+        }
+
+        /** @return the largest index value used by this allocation */
+        public int getMaxIndex() {
+            return mVertexOffset + mVertexCount - 1;
+        }
+    }
+
+    /**
+     * Creates a heap and its buffers.
+     *
+     * @param engine         the {@link Engine} to create the buffers with
+     * @param layout         a builder describing the vertex layout: buffer count and attributes.
+     *                       Its vertex count and buffer object mode are set by the heap. The
+     *                       attributes of each buffer must be interleaved, with a common
+     *                       <code>byteStride</code> that contains all of them.
+     * @param vertexCapacity number of vertices of the heap
+     * @param indexType      type of the indices. With {@link IndexBuffer.Builder.IndexType#USHORT
+     *                       USHORT}, <code>vertexCapacity</code> must be at most 65536.
+     * @param indexCapacity  number of indices of the heap
+     * @exception IllegalArgumentException if a buffer of the layout has no attribute, or its
+     *            attributes are not interleaved
+     */
+    public GeometryHeap(@NonNull Engine engine, @NonNull VertexBuffer.Builder layout,
+            @IntRange(from = 1) int vertexCapacity,
+            @NonNull IndexBuffer.Builder.IndexType indexType,
+            @IntRange(from = 1) int indexCapacity) {
+        if (vertexCapacity < 1 || indexCapacity < 1) {
+            throw new IllegalArgumentException("Capacities must be at least 1: vertexCapacity=" +
+                    vertexCapacity + " indexCapacity=" + indexCapacity);
+        }
+        if (indexType == IndexBuffer.Builder.IndexType.USHORT && vertexCapacity > 65536) {
+            throw new IllegalArgumentException(
+                    "vertexCapacity must be at most 65536 with USHORT indices: " + vertexCapacity);
+        }
+        mEngine = engine;
+        mIndexSize = indexType == IndexBuffer.Builder.IndexType.USHORT ? 2 : 4;
+
+        int bufferCount = layout.getBufferCount();
+        mStrides = new int[bufferCount];
+        mBufferObjects = new BufferObject[bufferCount];
+        mVertexData = new ByteBuffer[bufferCount];
+        for (int i = 0; i < bufferCount; i++) {
+            mStrides[i] = layout.getBufferStride(i);
+            if (mStrides[i] == 0) {
+                throw new IllegalArgumentException("Buffer " + i + " has no attribute");
+            }
+            if (mStrides[i] < 0) {
+                // ranges of vertices can only be sub-allocated if each vertex is contiguous
+                throw new IllegalArgumentException("The attributes of buffer " + i +
+                        " must be interleaved, with a common byteStride containing all of them");
+            }
+            int byteCount = checkedByteCount(vertexCapacity, mStrides[i]);
+            try (BufferObject.Builder builder = new BufferObject.Builder()) {
+                mBufferObjects[i] = builder
+                        .size(byteCount)
+                        .bindingType(BufferObject.Builder.BindingType.VERTEX)
+                        .build(engine);
+            }
+            mVertexData[i] = ByteBuffer.allocateDirect(byteCount);
+            mVertexData[i].order(ByteOrder.nativeOrder());
+        }
+
+        mVertexBuffer = layout
+                .vertexCount(vertexCapacity)
+                .enableBufferObjects(true)
+                .build(engine);
+        for (int i = 0; i < bufferCount; i++) {
+            mVertexBuffer.setBufferObjectAt(engine, i, mBufferObjects[i]);
+        }
+
+        try (IndexBuffer.Builder builder = new IndexBuffer.Builder()) {
+            mIndexBuffer = builder
+                    .indexCount(indexCapacity)
+                    .bufferType(indexType)
+                    .build(engine);
+        }
+        mIndexData = ByteBuffer.allocateDirect(checkedByteCount(indexCapacity, mIndexSize));
+        mIndexData.order(ByteOrder.nativeOrder());
+
+        mVertexRanges = new RangeAllocator(vertexCapacity);
+        mIndexRanges = new RangeAllocator(indexCapacity);
+    }
+
+    /**
+     * @return the vertex buffer holding the vertices of all the allocations
+     */
+    @NonNull
+    public VertexBuffer getVertexBuffer() {
+        return mVertexBuffer;
+    }
+
+    /**
+     * @return the index buffer holding the indices of all the allocations
+     */
+    @NonNull
+    public IndexBuffer getIndexBuffer() {
+        return mIndexBuffer;
+    }
+
+    /**
+     * Allocates a range of vertices and a range of indices.
+     *
+     * @param vertexCount number of vertices
+     * @param indexCount  number of indices
+     * @return the new allocation, or <code>null</code> if the heap doesn't have a free range large
+     *         enough, in which case {@link #compact} may help
+     */
+    @Nullable
+    public Allocation allocate(@IntRange(from = 1) int vertexCount,
+            @IntRange(from = 1) int indexCount) {
+        if (vertexCount < 1 || indexCount < 1) {
+            throw new IllegalArgumentException("Counts must be at least 1: vertexCount=" +
+                    vertexCount + " indexCount=" + indexCount);
+        }
+        int vertexOffset = mVertexRanges.allocate(vertexCount);
+        if (vertexOffset < 0) {
+            return null;
+        }
+        int indexOffset = mIndexRanges.allocate(indexCount);
+        if (indexOffset < 0) {
+            mVertexRanges.free(vertexOffset, vertexCount);
+            return null;
+        }
+        Allocation allocation =
+                new Allocation(this, vertexOffset, vertexCount, indexOffset, indexCount);
+        mAllocations.add(allocation);
+        return allocation;
+    }
+
+    /**
+     * Frees an allocation. Its ranges can be reused immediately, so the renderables using it
+     * must be destroyed or updated first.
+     *
+     * @param allocation an allocation of this heap
+     */
+    public void free(@NonNull Allocation allocation) {
+        checkAllocation(allocation);
+        mVertexRanges.free(allocation.mVertexOffset, allocation.mVertexCount);
+        mIndexRanges.free(allocation.mIndexOffset, allocation.mIndexCount);
+        mAllocations.remove(allocation);
+        allocation.mHeap = null;
+    }
+
+    /**
+     * Sets the vertices of an allocation in one of the vertex buffers.
+     *
+     * @param allocation  an allocation of this heap
+     * @param bufferIndex index of the vertex buffer, as declared by the layout
+     * @param data        vertex data laid out as declared by the layout, at most
+     *                    {@link Allocation#getVertexCount} vertices. The position of
+     *                    <code>data</code> is left unchanged.
+     * @exception BufferOverflowException if <code>data</code> is larger than the allocation
+     */
+    public void setVertices(@NonNull Allocation allocation, int bufferIndex,
+            @NonNull Buffer data) {
+        checkAllocation(allocation);
+        int stride = mStrides[bufferIndex];
+        ByteBuffer dst = mVertexData[bufferIndex].duplicate();
+        dst.order(ByteOrder.nativeOrder());
+        dst.position(allocation.mVertexOffset * stride);
+        dst.limit((allocation.mVertexOffset + allocation.mVertexCount) * stride);
+        NioUtils.copy(data, dst);
+        upload(bufferIndex, allocation.mVertexOffset * stride, dst.position());
+    }
+
+    /**
+     * Sets the indices of an allocation.
+     *
+     * @param allocation an allocation of this heap
+     * @param indices    a {@link ShortBuffer} or an {@link IntBuffer}, matching the index type
+     *                   of the heap, of at most {@link Allocation#getIndexCount} indices. Indices
+     *                   are relative to the first vertex of the allocation. The position of
+     *                   <code>indices</code> is left unchanged.
+     * @exception BufferOverflowException if there are more indices than the allocation holds
+     * @exception IllegalArgumentException if the buffer type doesn't match the index type or if
+     *            an index is outside of the allocation's vertices
+     */
+    public void setIndices(@NonNull Allocation allocation, @NonNull Buffer indices) {
+        checkAllocation(allocation);
+        if (mIndexSize == 2 ? !(indices instanceof ShortBuffer) : !(indices instanceof IntBuffer)) {
+            throw new IllegalArgumentException("Indices must be a " +
+                    (mIndexSize == 2 ? "ShortBuffer" : "IntBuffer"));
+        }
+        int count = indices.remaining();
+        if (count > allocation.mIndexCount) {
+            throw new BufferOverflowException();
+        }
+        int base = allocation.mVertexOffset;
+        int start = allocation.mIndexOffset;
+        for (int i = 0; i < count; i++) {
+            int index = mIndexSize == 2 ?
+                    ((ShortBuffer) indices).get(indices.position() + i) & 0xffff :
+                    ((IntBuffer) indices).get(indices.position() + i);
+            if (index < 0 || index >= allocation.mVertexCount) {
+                throw new IllegalArgumentException("Index " + index +
+                        " outside of allocation of " + allocation.mVertexCount + " vertices");
+            }
+            putIndex(start + i, base + index);
+        }
+        upload(-1, start * mIndexSize, (start + count) * mIndexSize);
+    }
+
+    /**
+     * Sets a primitive of a renderable to an allocation.
+     *
+     * @param builder    the builder of the renderable
+     * @param index      index of the primitive
+     * @param type       type of the primitive
+     * @param allocation an allocation of this heap
+     * @return <code>builder</code>, for chaining calls
+     */
+    @NonNull
+    public RenderableManager.Builder geometry(@NonNull RenderableManager.Builder builder,
+            @IntRange(from = 0) int index, @NonNull RenderableManager.PrimitiveType type,
+            @NonNull Allocation allocation) {
+        checkAllocation(allocation);
+        return builder.geometry(index, type, mVertexBuffer, mIndexBuffer,
+                allocation.mIndexOffset, allocation.getMinIndex(), allocation.getMaxIndex(),
+                allocation.mIndexCount);
+    }
+
+    /**
+     * Updates a primitive of an existing renderable to an allocation, typically after the
+     * allocation was moved by {@link #compact}.
+     *
+     * @param manager        the {@link RenderableManager} of the renderable
+     * @param instance       the instance of the renderable
+     * @param primitiveIndex index of the primitive
+     * @param type           type of the primitive
+     * @param allocation     an allocation of this heap
+     */
+    public void setGeometryAt(@NonNull RenderableManager manager,
+            @EntityInstance int instance, @IntRange(from = 0) int primitiveIndex,
+            @NonNull RenderableManager.PrimitiveType type, @NonNull Allocation allocation) {
+        checkAllocation(allocation);
+        manager.setGeometryAt(instance, primitiveIndex, type, mVertexBuffer, mIndexBuffer,
+                allocation.mIndexOffset, allocation.mIndexCount);
+    }
+
+    /**
+     * Moves all the live allocations to the start of the buffers, leaving a single free range
+     * at the end of each buffer, and uploads the moved content.
+     *
+     * <p>The renderables using a moved allocation must be updated with
+     * {@link #setGeometryAt} before they are rendered again.</p>
+     *
+     * @return the allocations that were moved
+     */
+    @NonNull
+    public List<Allocation> compact() {
+        ArrayList<Allocation> moved = new ArrayList<>();
+        if (mAllocations.isEmpty()) {
+            return moved;
+        }
+
+        // vertices first, the indices of the moved vertices are rebased in place
+        ArrayList<Allocation> sorted = new ArrayList<>(mAllocations);
+        for (Allocation allocation : sorted) {
+            allocation.mMoved = false;
+        }
+        Collections.sort(sorted, new Comparator<Allocation>() {
+            @Override
+            public int compare(Allocation a, Allocation b) {
+                return Integer.compare(a.mVertexOffset, b.mVertexOffset);
+            }
+        });
+        int vertexOffset = 0;
+        for (Allocation allocation : sorted) {
+            int delta = allocation.mVertexOffset - vertexOffset;
+            if (delta != 0) {
+                for (int i = 0; i < mVertexData.length; i++) {
+                    move(mVertexData[i], allocation.mVertexOffset * mStrides[i],
+                            vertexOffset * mStrides[i], allocation.mVertexCount * mStrides[i]);
+                }
+                for (int i = 0; i < allocation.mIndexCount; i++) {
+                    int index = allocation.mIndexOffset + i;
+                    putIndex(index, getIndex(index) - delta);
+                }
+                allocation.mVertexOffset = vertexOffset;
+                allocation.mMoved = true;
+                moved.add(allocation);
+            }
+            vertexOffset += allocation.mVertexCount;
+        }
+
+        Collections.sort(sorted, new Comparator<Allocation>() {
+            @Override
+            public int compare(Allocation a, Allocation b) {
+                return Integer.compare(a.mIndexOffset, b.mIndexOffset);
+            }
+        });
+        int indexOffset = 0;
+        for (Allocation allocation : sorted) {
+            if (allocation.mIndexOffset != indexOffset) {
+                move(mIndexData, allocation.mIndexOffset * mIndexSize, indexOffset * mIndexSize,
+                        allocation.mIndexCount * mIndexSize);
+                allocation.mIndexOffset = indexOffset;
+                if (!allocation.mMoved) {
+                    allocation.mMoved = true;
+                    moved.add(allocation);
+                }
+            }
+            indexOffset += allocation.mIndexCount;
+        }
+
+        if (!moved.isEmpty()) {
+            mVertexRanges.reset(vertexOffset);
+            mIndexRanges.reset(indexOffset);
+            for (int i = 0; i < mVertexData.length; i++) {
+                upload(i, 0, vertexOffset * mStrides[i]);
+            }
+            upload(-1, 0, indexOffset * mIndexSize);
+        }
+        return moved;
+    }
+
+    /** @return the number of live allocations */
+    public int getAllocationCount() {
+        return mAllocations.size();
+    }
+
+    /** @return the number of vertices of the heap */
+    public int getVertexCapacity() {
+        return mVertexRanges.mCapacity;
+    }
+
+    /** @return the number of vertices used by live allocations */
+    public int getUsedVertexCount() {
+        return mVertexRanges.mUsed;
+    }
+
+    /** @return the number of indices of the heap */
+    public int getIndexCapacity() {
+        return mIndexRanges.mCapacity;
+    }
+
+    /** @return the number of indices used by live allocations */
+    public int getUsedIndexCount() {
+        return mIndexRanges.mUsed;
+    }
+
+    /** @return the fraction of the vertices used by live allocations, between 0 and 1 */
+    public float getVertexOccupancy() {
+        return (float) mVertexRanges.mUsed / mVertexRanges.mCapacity;
+    }
+
+    /** @return the fraction of the indices used by live allocations, between 0 and 1 */
+    public float getIndexOccupancy() {
+        return (float) mIndexRanges.mUsed / mIndexRanges.mCapacity;
+    }
+
+    /**
+     * @return the fragmentation of the free vertices, between 0 when they form a single range
+     *         and close to 1 when they are scattered in many small ranges
+     */
+    public float getVertexFragmentation() {
+        return mVertexRanges.getFragmentation();
+    }
+
+    /**
+     * @return the fragmentation of the free indices, between 0 when they form a single range
+     *         and close to 1 when they are scattered in many small ranges
+     */
+    public float getIndexFragmentation() {
+        return mIndexRanges.getFragmentation();
+    }
+
+    /**
+     * Destroys the vertex buffer and the index buffer of the heap. The heap and its allocations
+     * must not be used after this call.
+     *
+     * <p>{@link BufferObject}s cannot be destroyed individually, the ones created by the heap
+     * are freed with the {@link Engine}.</p>
+     */
+    public void destroy() {
+        mEngine.destroyVertexBuffer(mVertexBuffer);
+        mEngine.destroyIndexBuffer(mIndexBuffer);
+        for (Allocation allocation : mAllocations) {
+            allocation.mHeap = null;
+        }
+        mAllocations.clear();
+    }
+
+    private void checkAllocation(@NonNull Allocation allocation) {
+        if (allocation.mHeap != this) {
+            throw new IllegalArgumentException("Allocation not live in this GeometryHeap");
+        }
+    }
+
+    // uploads a range of bytes of the CPU-side copy, bufferIndex -1 is the index buffer
+    private void upload(int bufferIndex, int start, int end) {
+        if (start >= end) {
+            return;
+        }
+        ByteBuffer range = (bufferIndex < 0 ? mIndexData : mVertexData[bufferIndex]).duplicate();
+        range.position(start);
+        range.limit(end);
+        ByteBuffer staging = mStagingPool.copy(range);
+        Runnable callback = mStagingPool.getReleaseCallback(staging);
+        if (bufferIndex < 0) {
+            mIndexBuffer.setBuffer(mEngine, staging, start, end - start,
+                    mStagingPool.getHandler(), callback);
+        } else {
+            mBufferObjects[bufferIndex].setBuffer(mEngine, staging, start, end - start,
+                    mStagingPool.getHandler(), callback);
+        }
+    }
+
+    private int getIndex(int index) {
+        return mIndexSize == 2 ?
+                mIndexData.getShort(index * 2) & 0xffff : mIndexData.getInt(index * 4);
+    }
+
+    private void putIndex(int index, int value) {
+        if (mIndexSize == 2) {
+            mIndexData.putShort(index * 2, (short) value);
+        } else {
+            mIndexData.putInt(index * 4, value);
+        }
+    }
+
+    // moves bytes towards the start of the buffer, the ranges may overlap: copying in
+    // increasing order never overwrites bytes that are yet to be read
+    private static void move(@NonNull ByteBuffer data, int from, int to, int byteCount) {
+        int i = 0;
+        for (; i + 8 <= byteCount; i += 8) {
+            data.putLong(to + i, data.getLong(from + i));
+        }
+        for (; i < byteCount; i++) {
+            data.put(to + i, data.get(from + i));
+        }
+    }
+
+    private static int checkedByteCount(int count, int elementSize) {
+        long byteCount = (long) count * elementSize;
+        if (byteCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Heap larger than 2 GiB");
+        }
+        return (int) byteCount;
+    }
+
+    // first-fit allocator of ranges of elements, free ranges are coalesced
+    private static final class RangeAllocator {
+        final int mCapacity;
+        int mUsed;
+        // offset to size of the free ranges
+        @NonNull private final TreeMap<Integer, Integer> mFree = new TreeMap<>();
+
+        RangeAllocator(int capacity) {
+            mCapacity = capacity;
+            mFree.put(0, capacity);
+        }
+
+        int allocate(int count) {
+            for (Map.Entry<Integer, Integer> range : mFree.entrySet()) {
+                int size = range.getValue();
+                if (size >= count) {
+                    int offset = range.getKey();
+                    mFree.remove(offset);
+                    if (size > count) {
+                        mFree.put(offset + count, size - count);
+                    }
+                    mUsed += count;
+                    return offset;
+                }
+            }
+            return -1;
+        }
+
+        void free(int offset, int count) {
+            mUsed -= count;
+            Map.Entry<Integer, Integer> next = mFree.ceilingEntry(offset);
+            if (next != null && next.getKey() == offset + count) {
+                mFree.remove(next.getKey());
+                count += next.getValue();
+            }
+            Map.Entry<Integer, Integer> previous = mFree.floorEntry(offset);
+            if (previous != null && previous.getKey() + previous.getValue() == offset) {
+                offset = previous.getKey();
+                count += previous.getValue();
+            }
+            mFree.put(offset, count);
+        }
+
+        // makes [0, used) the only used range
+        void reset(int used) {
+            mUsed = used;
+            mFree.clear();
+            if (used < mCapacity) {
+                mFree.put(used, mCapacity - used);
+            }
+        }
+
+        float getFragmentation() {
+            int free = mCapacity - mUsed;
+            if (free == 0) {
+                return 0.0f;
+            }
+            int largest = 0;
+            for (int size : mFree.values()) {
+                largest = Math.max(largest, size);
+            }
+            return 1.0f - (float) largest / free;
+        }
+    }
+}
@@ -37,15 +37,26 @@ import java.nio.BufferOverflowException;
 public class IndexBuffer {
     private long mNativeObject;
 
+    // estimated size in bytes, computed by the Builder
+    long mByteCount;
+
     private IndexBuffer(long nativeIndexBuffer) {
         mNativeObject = nativeIndexBuffer;
     }
 
-    public static class Builder {
-        @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"})
-        // Keep to finalize native resources
-        private final BuilderFinalizer mFinalizer;
-        private final long mNativeBuilder;
+    public static class Builder implements AutoCloseable {
+        private static final NativeReaper.Destructor sBuilderDestructor =
+                new NativeReaper.Destructor() {
+                    @Override
+                    public void destroy(long nativeObject) { nDestroyBuilder(nativeObject); }
+                };
+
+        private final NativeReaper.Cleanable mCleanable;
+        private long mNativeBuilder;
+
+        // used to estimate the size of the index buffer
+        private int mIndexCount;
+        @NonNull private IndexType mIndexType = IndexType.UINT;
 
         /**
          * Type of the index buffer.
@@ -60,7 +71,7 @@ public class IndexBuffer {
 
         public Builder() {
             mNativeBuilder = nCreateBuilder();
-            mFinalizer = new BuilderFinalizer(mNativeBuilder);
+            mCleanable = NativeReaper.register(this, mNativeBuilder, sBuilderDestructor);
         }
 
         /**
@@ -73,6 +84,7 @@ public class IndexBuffer {
         @NonNull
         public Builder indexCount(@IntRange(from = 1) int indexCount) {
             nBuilderIndexCount(mNativeBuilder, indexCount);
+            mIndexCount = indexCount;
             return this;
         }
 
@@ -86,6 +98,7 @@ public class IndexBuffer {
         @NonNull
         public Builder bufferType(@NonNull IndexType indexType) {
             nBuilderBufferType(mNativeBuilder, indexType.ordinal());
+            mIndexType = indexType;
             return this;
         }
 
@@ -104,28 +117,27 @@ public class IndexBuffer {
          */
         @NonNull
         public IndexBuffer build(@NonNull Engine engine) {
+            if (mNativeBuilder == 0) {
+                throw new IllegalStateException("Calling method on closed Builder");
+            }
             long nativeIndexBuffer = nBuilderBuild(mNativeBuilder, engine.getNativeObject());
             if (nativeIndexBuffer == 0)
                 throw new IllegalStateException("Couldn't create IndexBuffer");
-            return new IndexBuffer(nativeIndexBuffer);
+            IndexBuffer indexBuffer = new IndexBuffer(nativeIndexBuffer);
+            indexBuffer.mByteCount = (long) mIndexCount * (mIndexType == IndexType.USHORT ? 2 : 4);
+            ResourceTracker.onCreated(engine, indexBuffer);
+            engine.onCreated(indexBuffer);
+            return indexBuffer;
         }
 
-        private static class BuilderFinalizer {
-            private final long mNativeObject;
-
-            BuilderFinalizer(long nativeObject) {
-                mNativeObject = nativeObject;
-            }
-
-            @Override
-            public void finalize() {
-                try {
-                    super.finalize();
-                } catch (Throwable t) { // Ignore
-                } finally {
-                    nDestroyBuilder(mNativeObject);
-                }
-            }
+        /**
+         * Frees the native builder now rather than when this <code>Builder</code> becomes
+         * unreachable. The <code>Builder</code> must not be used after this call.
+         */
+        @Override
+        public void close() {
+            mCleanable.clean();
+            mNativeBuilder = 0;
         }
     }
 
@@ -91,17 +91,22 @@ public class IndirectLight {
     /**
      * Use <code>Builder</code> to construct an <code>IndirectLight</code> object instance.
      */
-    public static class Builder {
-        @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"}) // Keep to finalize native resources
-        private final BuilderFinalizer mFinalizer;
-        private final long mNativeBuilder;
+    public static class Builder implements AutoCloseable {
+        private static final NativeReaper.Destructor sBuilderDestructor =
+                new NativeReaper.Destructor() {
+                    @Override
+                    public void destroy(long nativeObject) { nDestroyBuilder(nativeObject); }
+                };
+
+        private final NativeReaper.Cleanable mCleanable;
+        private long mNativeBuilder;
 
         /**
          * Use <code>Builder</code> to construct an <code>IndirectLight</code> object instance.
          */
         public Builder() {
             mNativeBuilder = nCreateBuilder();
-            mFinalizer = new BuilderFinalizer(mNativeBuilder);
+            mCleanable = NativeReaper.register(this, mNativeBuilder, sBuilderDestructor);
         }
 
         /**
@@ -319,25 +324,24 @@ public class IndirectLight {
          */
         @NonNull
         public IndirectLight build(@NonNull Engine engine) {
+            if (mNativeBuilder == 0) {
+                throw new IllegalStateException("Calling method on closed Builder");
+            }
             long nativeIndirectLight = nBuilderBuild(mNativeBuilder, engine.getNativeObject());
             if (nativeIndirectLight == 0) throw new IllegalStateException("Couldn't create IndirectLight");
-            return new IndirectLight(nativeIndirectLight);
+            IndirectLight indirectLight = new IndirectLight(nativeIndirectLight);
+            ResourceTracker.onCreated(engine, indirectLight);
+            return indirectLight;
         }
 
-        private static class BuilderFinalizer {
-            private final long mNativeObject;
-
-            BuilderFinalizer(long nativeObject) { mNativeObject = nativeObject; }
-
-            @Override
-            public void finalize() {
-                try {
-                    super.finalize();
-                } catch (Throwable t) { // Ignore
-                } finally {
-                    nDestroyBuilder(mNativeObject);
-                }
-            }
+        /**
+         * Frees the native builder now rather than when this <code>Builder</code> becomes
+         * unreachable. The <code>Builder</code> must not be used after this call.
+         */
+        @Override
+        public void close() {
+            mCleanable.clean();
+            mNativeBuilder = 0;
         }
     }
 
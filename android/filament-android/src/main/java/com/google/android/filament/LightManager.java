@@ -120,6 +120,13 @@ public class LightManager {
     private static final Type[] sTypeValues = Type.values();
 
     private long mNativeObject;
+    @NonNull private final EntityInstanceCache mInstanceCache =
+            new EntityInstanceCache(new EntityInstanceCache.NativeLookup() {
+                @Override
+                public int getInstance(int entity) {
+                    return nGetInstance(mNativeObject, entity);
+                }
+            });
 
     LightManager(long nativeLightManager) {
         mNativeObject = nativeLightManager;
@@ -153,7 +160,48 @@ public class LightManager {
      */
     @EntityInstance
     public int getInstance(@Entity int entity) {
-        return nGetInstance(mNativeObject, entity);
+        return mInstanceCache.lookup(entity);
+    }
+
+    /**
+     * Gets the {@link EntityInstance}s of the light components associated with many entities.
+     *
+     * @param entities an array of {@link Entity}
+     * @param out      receives the {@link EntityInstance} of each entity, 0 for entities without
+     *                 a light component. Must be at least as long as <code>entities</code>.
+     * @return <code>out</code>, for convenience
+     * @see #getInstance
+     */
+    @EntityInstance
+    @NonNull
+    public int[] instancesOf(@Entity @NonNull int[] entities, @EntityInstance @NonNull int[] out) {
+        return mInstanceCache.fill(entities, out);
+    }
+
+    /**
+     * Enables or disables caching {@link #getInstance} results on the Java side. Disabled by
+     * default. The cache is invalidated when components are created or destroyed through this
+     * manager, its builder, or {@link Engine#destroyEntity}. Other changes, for instance by
+     * gltfio, require a call to {@link #invalidateInstanceCache}.
+     *
+     * @param enabled true to enable the cache, false to disable and drop it
+     */
+    public void setInstanceCacheEnabled(boolean enabled) {
+        mInstanceCache.setEnabled(enabled);
+    }
+
+    /**
+     * @return true if the {@link #getInstance} cache is enabled
+     */
+    public boolean isInstanceCacheEnabled() {
+        return mInstanceCache.isEnabled();
+    }
+
+    /**
+     * Drops the {@link #getInstance} cache, see {@link #setInstanceCacheEnabled}.
+     */
+    public void invalidateInstanceCache() {
+        mInstanceCache.invalidate();
     }
 
     /**
@@ -161,6 +209,7 @@ public class LightManager {
      * @param entity An Entity.
      */
     public void destroy(@Entity int entity) {
+        invalidateInstanceCache();
         nDestroy(mNativeObject, entity);
     }
 
@@ -440,10 +489,16 @@ public class LightManager {
     /**
      *  Use Builder to construct a Light object instance
      */
-    public static class Builder {
-        @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"}) // Keep to finalize native resources
-        private final BuilderFinalizer mFinalizer;
-        private final long mNativeBuilder;
+    public static class Builder implements AutoCloseable {
+        private static final NativeReaper.Destructor sBuilderDestructor =
+                new NativeReaper.Destructor() {
+                    @Override
+                    public void destroy(long nativeObject) { nDestroyBuilder(nativeObject); }
+                };
+
+        @NonNull private final Type mType;
+        private NativeReaper.Cleanable mCleanable;
+        private long mNativeBuilder;
 
         /**
          * Creates a light builder and set the light's {@link Type}.
@@ -451,8 +506,31 @@ public class LightManager {
          * @param type {@link Type} of Light object to create.
          */
         public Builder(@NonNull Type type) {
+            mType = type;
             mNativeBuilder = nCreateBuilder(type.ordinal());
-            mFinalizer = new BuilderFinalizer(mNativeBuilder);
+            mCleanable = NativeReaper.register(this, mNativeBuilder, sBuilderDestructor);
+        }
+
+        /**
+         * Resets this builder to its initial state, as if it had just been constructed, so that it
+         * can be configured again from scratch.
+         *
+         * <p>A builder can be used to build any number of lights; settings are kept from one
+         * call to <code>build</code> to the next. When creating many similar lights, it is
+         * cheaper to reuse a single builder and change only what differs between builds than to
+         * create a new builder each time.</p>
+         *
+         * @return this <code>Builder</code> object for chaining calls
+         */
+        @NonNull
+        public Builder reset() {
+            if (mNativeBuilder == 0) {
+                throw new IllegalStateException("Calling method on closed Builder");
+            }
+            mCleanable.clean();
+            mNativeBuilder = nCreateBuilder(mType.ordinal());
+            mCleanable = NativeReaper.register(this, mNativeBuilder, sBuilderDestructor);
+            return this;
         }
 
         /**
@@ -765,25 +843,24 @@ public class LightManager {
          * @param entity Entity to add the light component to.
          */
         public void build(@NonNull Engine engine, @Entity int entity) {
+            if (mNativeBuilder == 0) {
+                throw new IllegalStateException("Calling method on closed Builder");
+            }
+            engine.getLightManager().invalidateInstanceCache();
             if (!nBuilderBuild(mNativeBuilder, engine.getNativeObject(), entity)) {
                 throw new IllegalStateException(
                     "Couldn't create Light component for entity " + entity + ", see log.");
             }
         }
 
-        private static class BuilderFinalizer {
-            private final long mNativeObject;
-            BuilderFinalizer(long nativeObject) { mNativeObject = nativeObject; }
-            @Override
-            public void finalize() {
-                try {
-                    super.finalize();
-                } catch (Throwable t) { // Ignore
-                } finally {
-                    nDestroyBuilder(mNativeObject);
-                }
-            }
-
+        /**
+         * Frees the native builder now rather than when this <code>Builder</code> becomes
+         * unreachable. The <code>Builder</code> must not be used after this call.
+         */
+        @Override
+        public void close() {
+            mCleanable.clean();
+            mNativeBuilder = 0;
         }
     }
 
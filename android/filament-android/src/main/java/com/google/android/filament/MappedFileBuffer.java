@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.filament;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Executor;
+
+/**
+ * A read-only memory mapping of a file region, used as the source of uploads without copying
+ * the file's content to the Java heap or to an intermediate direct buffer.
+ *
+ * <p>A mapping is a direct buffer, so filament reads it through its native address like any
+ * other direct buffer. Uploads are asynchronous however, and the mapping must remain valid
+ * until filament is done reading it. The upload methods of this class take care of this: each
+ * upload keeps the mapping reachable until its release callback runs. Uploads issued directly,
+ * for instance with a {@link Texture.PixelBufferDescriptor}, should use the callback returned by
+ * {@link #acquireReleaseCallback}.</p>
+ *
+ * <pre>
+ * try (MappedFileBuffer mesh = MappedFileBuffer.map(file)) {
+ *     mesh.uploadTo(engine, vertexBuffer, 0, 0, 0, vertexByteCount);
+ *     mesh.uploadTo(engine, indexBuffer, 0, vertexByteCount, indexByteCount);
+ * }
+ * </pre>
+ *
+ * <p>Material packages are read synchronously by {@link Material.Builder#build}, so they can be
+ * given directly to {@link Material.Builder#payload}:</p>
+ *
+ * <pre>
+ * try (MappedFileBuffer pkg = MappedFileBuffer.map(file)) {
+ *     material = new Material.Builder()
+ *             .payload(pkg.getBuffer(), pkg.getByteCount())
+ *             .build(engine);
+ * }
+ * </pre>
+ *
+ * <p>Closing a <code>MappedFileBuffer</code> prevents new uploads; uploads in flight complete
+ * normally. The mapping itself is released by the garbage collector once the
+ * <code>MappedFileBuffer</code> and all the buffers obtained from it are unreachable.</p>
+ */
+public final class MappedFileBuffer implements AutoCloseable {
+    @NonNull private final MappedByteBuffer mMapping;
+
+    // guarded by this
+    private int mPendingUploadCount;
+    private boolean mClosed;
+
+    private MappedFileBuffer(@NonNull MappedByteBuffer mapping) {
+        mMapping = mapping;
+        mMapping.order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Maps an entire file.
+     *
+     * @param file the file to map
+     * @return a new <code>MappedFileBuffer</code>
+     * @exception IOException if the file cannot be opened or mapped
+     * @exception IllegalArgumentException if the file is 2 GiB or larger
+     */
+    @NonNull
+    public static MappedFileBuffer map(@NonNull File file) throws IOException {
+        return map(file, 0, file.length());
+    }
+
+    /**
+     * Maps a region of a file.
+     *
+     * @param file       the file to map
+     * @param offset     offset in bytes of the region in the file
+     * @param byteCount  size in bytes of the region, less than 2 GiB
+     * @return a new <code>MappedFileBuffer</code>
+     * @exception IOException if the file cannot be opened or mapped
+     * @exception IllegalArgumentException if the region is invalid
+     */
+    @NonNull
+    public static MappedFileBuffer map(@NonNull File file, @IntRange(from = 0) long offset,
+            @IntRange(from = 0) long byteCount) throws IOException {
+        if (offset < 0 || byteCount < 0 || byteCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Invalid region offset=" + offset + " byteCount=" + byteCount);
+        }
+        // the mapping stays valid after the channel is closed
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+                FileChannel channel = raf.getChannel()) {
+            return new MappedFileBuffer(
+                    channel.map(FileChannel.MapMode.READ_ONLY, offset, byteCount));
+        }
+    }
+
+    /**
+     * @return the size of the mapping in bytes
+     */
+    public int getByteCount() {
+        return mMapping.capacity();
+    }
+
+    /**
+     * @return a read-only view of the whole mapping, in native byte order
+     * @exception IllegalStateException if this <code>MappedFileBuffer</code> is closed
+     */
+    @NonNull
+    public ByteBuffer getBuffer() {
+        return getBuffer(0, getByteCount());
+    }
+
+    /**
+     * @param offset     offset in bytes of the view in the mapping
+     * @param byteCount  size in bytes of the view
+     * @return a read-only view of a region of the mapping, in native byte order
+     * @exception IllegalStateException if this <code>MappedFileBuffer</code> is closed
+     * @exception IndexOutOfBoundsException if the region is outside of the mapping
+     */
+    @NonNull
+    public ByteBuffer getBuffer(@IntRange(from = 0) int offset, @IntRange(from = 0) int byteCount) {
+        synchronized (this) {
+            if (mClosed) {
+                throw new IllegalStateException("Calling method on closed MappedFileBuffer");
+            }
+        }
+        if (offset < 0 || byteCount < 0 || offset > getByteCount() - byteCount) {
+            throw new IndexOutOfBoundsException(
+                    "Region offset=" + offset + " byteCount=" + byteCount +
+                    " outside of mapping of " + getByteCount() + " bytes");
+        }
+        ByteBuffer view = mMapping.asReadOnlyBuffer();
+        view.position(offset);
+        view.limit(offset + byteCount);
+        view = view.slice();
+        view.order(ByteOrder.nativeOrder());
+        return view;
+    }
+
+    /**
+     * Returns a callback to pass, along with {@link #getHandler}, to an upload reading from this
+     * mapping. The callback keeps the mapping reachable until it runs, and must be given to
+     * exactly one upload.
+     *
+     * @return a one-shot release callback
+     * @exception IllegalStateException if this <code>MappedFileBuffer</code> is closed
+     */
+    @NonNull
+    public Runnable acquireReleaseCallback() {
+        synchronized (this) {
+            if (mClosed) {
+                throw new IllegalStateException("Calling method on closed MappedFileBuffer");
+            }
+            mPendingUploadCount++;
+        }
+        return new Runnable() {
+            @Override
+            public void run() {
+                synchronized (MappedFileBuffer.this) {
+                    mPendingUploadCount--;
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the handler to use with the callbacks returned by {@link #acquireReleaseCallback}
+     */
+    @NonNull
+    public Executor getHandler() {
+        return DirectExecutor.INSTANCE;
+    }
+
+    /**
+     * @return the number of uploads from this mapping whose release callback hasn't run yet
+     */
+    public synchronized int getPendingUploadCount() {
+        return mPendingUploadCount;
+    }
+
+    /**
+     * Uploads a region of this mapping into a buffer of a {@link VertexBuffer}.
+     *
+     * @param engine            the {@link Engine} associated with <code>vertexBuffer</code>
+     * @param vertexBuffer      the destination <code>VertexBuffer</code>
+     * @param bufferIndex       index of the destination buffer in <code>vertexBuffer</code>
+     * @param destOffsetInBytes offset in bytes in the destination buffer
+     * @param offset            offset in bytes of the region in this mapping
+     * @param byteCount         size in bytes of the region
+     *
+     * @see VertexBuffer#setBufferAt(Engine, int, java.nio.Buffer, int, int, Object, Runnable)
+     */
+    public void uploadTo(@NonNull Engine engine, @NonNull VertexBuffer vertexBuffer,
+            int bufferIndex, @IntRange(from = 0) int destOffsetInBytes,
+            @IntRange(from = 0) int offset, @IntRange(from = 0) int byteCount) {
+        ByteBuffer view = getBuffer(offset, byteCount);
+        Runnable callback = acquireReleaseCallback();
+        try {
+            vertexBuffer.setBufferAt(engine, bufferIndex, view, destOffsetInBytes, byteCount,
+                    getHandler(), callback);
+        } catch (RuntimeException e) {
+            callback.run();
+            throw e;
+        }
+    }
+
+    /**
+     * Uploads a region of this mapping into an {@link IndexBuffer}.
+     *
+     * @param engine            the {@link Engine} associated with <code>indexBuffer</code>
+     * @param indexBuffer       the destination <code>IndexBuffer</code>
+     * @param destOffsetInBytes offset in bytes in <code>indexBuffer</code>
+     * @param offset            offset in bytes of the region in this mapping
+     * @param byteCount         size in bytes of the region
+     *
+     * @see IndexBuffer#setBuffer(Engine, java.nio.Buffer, int, int, Object, Runnable)
+     */
+    public void uploadTo(@NonNull Engine engine, @NonNull IndexBuffer indexBuffer,
+            @IntRange(from = 0) int destOffsetInBytes,
+            @IntRange(from = 0) int offset, @IntRange(from = 0) int byteCount) {
+        ByteBuffer view = getBuffer(offset, byteCount);
+        Runnable callback = acquireReleaseCallback();
+        try {
+            indexBuffer.setBuffer(engine, view, destOffsetInBytes, byteCount,
+                    getHandler(), callback);
+        } catch (RuntimeException e) {
+            callback.run();
+            throw e;
+        }
+    }
+
+    /**
+     * Uploads a region of this mapping into a {@link BufferObject}.
+     *
+     * @param engine            the {@link Engine} associated with <code>bufferObject</code>
+     * @param bufferObject      the destination <code>BufferObject</code>
+     * @param destOffsetInBytes offset in bytes in <code>bufferObject</code>
+     * @param offset            offset in bytes of the region in this mapping
+     * @param byteCount         size in bytes of the region
+     *
+     * @see BufferObject#setBuffer(Engine, java.nio.Buffer, int, int, Object, Runnable)
+     */
+    public void uploadTo(@NonNull Engine engine, @NonNull BufferObject bufferObject,
+            @IntRange(from = 0) int destOffsetInBytes,
+            @IntRange(from = 0) int offset, @IntRange(from = 0) int byteCount) {
+        ByteBuffer view = getBuffer(offset, byteCount);
+        Runnable callback = acquireReleaseCallback();
+        try {
+            bufferObject.setBuffer(engine, view, destOffsetInBytes, byteCount,
+                    getHandler(), callback);
+        } catch (RuntimeException e) {
+            callback.run();
+            throw e;
+        }
+    }
+
+    /**
+     * Uploads a region of this mapping into a level of a 2D {@link Texture}. The region must
+     * hold tightly packed, uncompressed pixels.
+     *
+     * @param engine    the {@link Engine} associated with <code>texture</code>
+     * @param texture   the destination <code>Texture</code>
+     * @param level     the destination level
+     * @param format    format of the pixels in the region
+     * @param type      type of the pixels in the region
+     * @param offset    offset in bytes of the region in this mapping
+     * @param byteCount size in bytes of the region
+     *
+     * @see Texture#setImage(Engine, int, Texture.PixelBufferDescriptor)
+     */
+    public void uploadTo(@NonNull Engine engine, @NonNull Texture texture,
+            @IntRange(from = 0) int level, @NonNull Texture.Format format,
+            @NonNull Texture.Type type,
+            @IntRange(from = 0) int offset, @IntRange(from = 0) int byteCount) {
+        ByteBuffer view = getBuffer(offset, byteCount);
+        Runnable callback = acquireReleaseCallback();
+        try {
+            texture.setImage(engine, level, new Texture.PixelBufferDescriptor(
+                    view, format, type, 1, 0, 0, 0, getHandler(), callback));
+        } catch (RuntimeException e) {
+            callback.run();
+            throw e;
+        }
+    }
+
+    /**
+     * Prevents new uploads from this mapping. Uploads in flight are not affected.
+     */
+    @Override
+    public synchronized void close() {
+        mClosed = true;
+    }
+}
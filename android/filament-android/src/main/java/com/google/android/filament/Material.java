@@ -23,11 +23,15 @@ import androidx.annotation.Size;
 import com.google.android.filament.proguard.UsedByNative;
 
 import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A Filament Material defines the visual appearance of an object. Materials function as a
@@ -52,10 +56,23 @@ public class Material {
     }
 
     private long mNativeObject;
+
+    // size of the material package in bytes, -1 when unknown (not created by a Builder)
+    long mByteCount = -1;
     private final MaterialInstance mDefaultInstance;
 
     private Set<VertexBuffer.VertexAttribute> mRequiredAttributes;
 
+    private static final AtomicInteger sNextId = new AtomicInteger();
+
+    // identifies this Material in the parameter handles it returns
+    private final int mId = sNextId.incrementAndGet();
+
+    // parameter names indexed by handle, see getParameterHandle()
+    private String[] mParameterNames;
+
+    private ParameterLayout mParameterLayout;
+
     /** Supported shading models */
     public enum Shading {
         /**
@@ -295,6 +312,318 @@ public class Material {
         }
     }
 
+    /**
+     * Describes how the parameters of a {@link Material} are laid out in a staging buffer
+     * committed with {@link MaterialInstance#commitParameters}.
+     *
+     * <p>Only uniform parameters are part of the layout, samplers and subpass inputs are not.
+     * Parameters appear in declaration order and follow the std140 rules of the material's
+     * uniform interface block: bool, int, uint and float components are stored as 32-bit values
+     * in native byte order, 3 and 4 component vectors are 16-byte aligned, matrices are stored as
+     * columns of 4 floats and each element of an array starts on a 16-byte boundary.</p>
+     *
+     * <p>The staging buffer is a Java-side helper: committing it forwards each changed parameter
+     * with its own <code>setParameter</code> call, it is not a single native update.</p>
+     *
+     * @see Material#getParameterLayout()
+     */
+    public static class ParameterLayout {
+        @NonNull private final Parameter[] mParameters;
+        @NonNull private final int[] mOffsets;
+        @NonNull private final HashMap<String, Integer> mIndices;
+        private final int mSize;
+
+        private static final MaterialInstance.BooleanElement[] sBooleanElements =
+                MaterialInstance.BooleanElement.values();
+        private static final MaterialInstance.IntElement[] sIntElements =
+                MaterialInstance.IntElement.values();
+        private static final MaterialInstance.FloatElement[] sFloatElements =
+                MaterialInstance.FloatElement.values();
+
+        // scratch storage used to forward array parameters
+        @NonNull private final float[] mFloats;
+        @NonNull private final int[] mInts;
+        @NonNull private final boolean[] mBooleans;
+
+        ParameterLayout(@NonNull List<Parameter> parameters) {
+            List<Parameter> uniforms = new ArrayList<>(parameters.size());
+            for (Parameter parameter : parameters) {
+                if (parameter.type.ordinal() <= Parameter.Type.MAT4.ordinal()) {
+                    uniforms.add(parameter);
+                }
+            }
+            mParameters = uniforms.toArray(new Parameter[0]);
+            mOffsets = new int[mParameters.length];
+            mIndices = new HashMap<>(mParameters.length * 2);
+            int offset = 0;
+            int maxComponents = 0;
+            for (int i = 0; i < mParameters.length; i++) {
+                Parameter parameter = mParameters[i];
+                int alignment = parameter.count > 1 ? 16 : getAlignment(parameter.type);
+                offset = (offset + alignment - 1) & ~(alignment - 1);
+                mOffsets[i] = offset;
+                mIndices.put(parameter.name, i);
+                offset += parameter.count * getStride(parameter.type, parameter.count > 1);
+                maxComponents = Math.max(maxComponents,
+                        parameter.count * getComponentCount(parameter.type));
+            }
+            mSize = (offset + 15) & ~15;
+            mFloats = new float[maxComponents];
+            mInts = new int[maxComponents];
+            mBooleans = new boolean[maxComponents];
+        }
+
+        /**
+         * @return the size in bytes of a staging buffer for this layout
+         */
+        public int getSize() {
+            return mSize;
+        }
+
+        /**
+         * Returns the byte offset of a parameter, relative to the start of the staging buffer.
+         *
+         * @param name the name of the material parameter
+         * @return the offset in bytes of the parameter's first component
+         * @exception IllegalArgumentException if the layout has no parameter of that name
+         */
+        public int getOffset(@NonNull String name) {
+            return mOffsets[getIndex(name)];
+        }
+
+        /**
+         * Allocates a direct, zero-initialized staging buffer suitable for this layout.
+         *
+         * @return a new {@link ByteBuffer} of {@link #getSize()} bytes in native byte order
+         */
+        @NonNull
+        public ByteBuffer createBuffer() {
+            return ByteBuffer.allocateDirect(mSize).order(ByteOrder.nativeOrder());
+        }
+
+        // index of a parameter in the layout
+        int getIndex(@NonNull String name) {
+            Integer index = mIndices.get(name);
+            if (index == null) {
+                throw new IllegalArgumentException("Unknown uniform parameter " + name);
+            }
+            return index;
+        }
+
+        /**
+         * State of a {@link MaterialInstance} committing staging buffers of this layout.
+         */
+        static final class CommitState {
+            // values last seen in the staging buffer, one int per 32-bit component
+            @NonNull final int[] words;
+            // parameters committed at least once, whose changes are detected by value
+            @NonNull final long[] committed;
+            // parameters sent by the next commit whatever their value
+            @NonNull final long[] dirty;
+
+            CommitState(int size, int parameterCount) {
+                words = new int[size / 4];
+                committed = new long[(parameterCount + 63) / 64];
+                dirty = new long[(parameterCount + 63) / 64];
+            }
+
+            void markDirty(int index) {
+                dirty[index >>> 6] |= 1L << index;
+            }
+        }
+
+        @NonNull
+        CommitState createCommitState() {
+            return new CommitState(mSize, mParameters.length);
+        }
+
+        // a parameter was set by name: send it again on the next commit if the buffer owns it
+        void onParameterSet(@NonNull CommitState state, @NonNull String name) {
+            Integer index = mIndices.get(name);
+            if (index != null && (state.committed[index >>> 6] & (1L << index)) != 0) {
+                state.markDirty(index);
+            }
+        }
+
+        /**
+         * Forwards to the given instance the parameters marked dirty, and the parameters already
+         * committed once whose value changed.
+         */
+        void commit(@NonNull MaterialInstance instance, @NonNull ByteBuffer buffer,
+                @NonNull CommitState state) {
+            final int base = buffer.position();
+            for (int i = 0; i < mParameters.length; i++) {
+                final long bit = 1L << i;
+                final boolean changed = update(i, buffer, base, state.words);
+                if ((state.dirty[i >>> 6] & bit) != 0 ||
+                        (changed && (state.committed[i >>> 6] & bit) != 0)) {
+                    commitParameter(instance, mParameters[i], buffer, base + mOffsets[i]);
+                    state.committed[i >>> 6] |= bit;
+                    state.dirty[i >>> 6] &= ~bit;
+                }
+            }
+        }
+
+        /**
+         * Copies the staged components of the parameter at <code>index</code> into
+         * <code>words</code>, returns true if they changed.
+         */
+        private boolean update(int index, @NonNull ByteBuffer buffer, int base,
+                @NonNull int[] words) {
+            Parameter parameter = mParameters[index];
+            int offset = mOffsets[index];
+            int count = parameter.count * getStride(parameter.type, parameter.count > 1) / 4;
+            boolean changed = false;
+            for (int j = 0, w = offset / 4, o = base + offset; j < count; j++, w++, o += 4) {
+                int word = buffer.getInt(o);
+                if (word != words[w]) {
+                    words[w] = word;
+                    changed = true;
+                }
+            }
+            return changed;
+        }
+
+        private void commitParameter(@NonNull MaterialInstance instance,
+                @NonNull Parameter parameter, @NonNull ByteBuffer buffer, int offset) {
+            final String name = parameter.name;
+            final Parameter.Type type = parameter.type;
+            final int components = getComponentCount(type);
+            if (parameter.count == 1 && type != Parameter.Type.MAT3
+                    && type != Parameter.Type.MAT4) {
+                switch (type) {
+                    case BOOL:
+                        instance.setParameter(name, buffer.getInt(offset) != 0);
+                        break;
+                    case BOOL2:
+                        instance.setParameter(name, buffer.getInt(offset) != 0,
+                                buffer.getInt(offset + 4) != 0);
+                        break;
+                    case BOOL3:
+                        instance.setParameter(name, buffer.getInt(offset) != 0,
+                                buffer.getInt(offset + 4) != 0, buffer.getInt(offset + 8) != 0);
+                        break;
+                    case BOOL4:
+                        instance.setParameter(name, buffer.getInt(offset) != 0,
+                                buffer.getInt(offset + 4) != 0, buffer.getInt(offset + 8) != 0,
+                                buffer.getInt(offset + 12) != 0);
+                        break;
+                    case FLOAT:
+                        instance.setParameter(name, buffer.getFloat(offset));
+                        break;
+                    case FLOAT2:
+                        instance.setParameter(name, buffer.getFloat(offset),
+                                buffer.getFloat(offset + 4));
+                        break;
+                    case FLOAT3:
+                        instance.setParameter(name, buffer.getFloat(offset),
+                                buffer.getFloat(offset + 4), buffer.getFloat(offset + 8));
+                        break;
+                    case FLOAT4:
+                        instance.setParameter(name, buffer.getFloat(offset),
+                                buffer.getFloat(offset + 4), buffer.getFloat(offset + 8),
+                                buffer.getFloat(offset + 12));
+                        break;
+                    case INT:
+                    case UINT:
+                        instance.setParameter(name, buffer.getInt(offset));
+                        break;
+                    case INT2:
+                    case UINT2:
+                        instance.setParameter(name, buffer.getInt(offset),
+                                buffer.getInt(offset + 4));
+                        break;
+                    case INT3:
+                    case UINT3:
+                        instance.setParameter(name, buffer.getInt(offset),
+                                buffer.getInt(offset + 4), buffer.getInt(offset + 8));
+                        break;
+                    case INT4:
+                    case UINT4:
+                        instance.setParameter(name, buffer.getInt(offset),
+                                buffer.getInt(offset + 4), buffer.getInt(offset + 8),
+                                buffer.getInt(offset + 12));
+                        break;
+                    default:
+                        break;
+                }
+                return;
+            }
+
+            // arrays and matrices: repack each element tightly, skipping std140 padding
+            final int stride = getStride(type, parameter.count > 1);
+            final int columns = type == Parameter.Type.MAT3 ? 3 : type == Parameter.Type.MAT4 ? 4 : 1;
+            final int rows = components / columns;
+            int n = 0;
+            for (int e = 0; e < parameter.count; e++) {
+                for (int c = 0; c < columns; c++) {
+                    int o = offset + e * stride + c * 16;
+                    for (int r = 0; r < rows; r++, n++, o += 4) {
+                        mInts[n] = buffer.getInt(o);
+                        mFloats[n] = buffer.getFloat(o);
+                        mBooleans[n] = mInts[n] != 0;
+                    }
+                }
+            }
+            switch (type) {
+                case BOOL: case BOOL2: case BOOL3: case BOOL4:
+                    instance.setParameter(name, sBooleanElements[
+                            type.ordinal() - Parameter.Type.BOOL.ordinal()],
+                            mBooleans, 0, parameter.count);
+                    break;
+                case INT: case INT2: case INT3: case INT4:
+                    instance.setParameter(name, sIntElements[
+                            type.ordinal() - Parameter.Type.INT.ordinal()],
+                            mInts, 0, parameter.count);
+                    break;
+                case UINT: case UINT2: case UINT3: case UINT4:
+                    instance.setParameter(name, sIntElements[
+                            type.ordinal() - Parameter.Type.UINT.ordinal()],
+                            mInts, 0, parameter.count);
+                    break;
+                case FLOAT: case FLOAT2: case FLOAT3: case FLOAT4:
+                    instance.setParameter(name, sFloatElements[
+                            type.ordinal() - Parameter.Type.FLOAT.ordinal()],
+                            mFloats, 0, parameter.count);
+                    break;
+                case MAT3:
+                    instance.setParameter(name, MaterialInstance.FloatElement.MAT3,
+                            mFloats, 0, parameter.count);
+                    break;
+                case MAT4:
+                    instance.setParameter(name, MaterialInstance.FloatElement.MAT4,
+                            mFloats, 0, parameter.count);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private static int getComponentCount(@NonNull Parameter.Type type) {
+            switch (type) {
+                case MAT3: return 9;
+                case MAT4: return 16;
+                default: return (type.ordinal() % 4) + 1;
+            }
+        }
+
+        private static int getAlignment(@NonNull Parameter.Type type) {
+            int components = getComponentCount(type);
+            return components == 1 ? 4 : components == 2 ? 8 : 16;
+        }
+
+        private static int getStride(@NonNull Parameter.Type type, boolean isArray) {
+            switch (type) {
+                case MAT3: return 48;
+                case MAT4: return 64;
+                default: {
+                    int size = getComponentCount(type) * 4;
+                    return isArray ? (size + 15) & ~15 : size;
+                }
+            }
+        }
+    }
+
     public Material(long nativeMaterial) {
         mNativeObject = nativeMaterial;
         long nativeDefaultInstance = nGetDefaultInstance(nativeMaterial);
@@ -332,7 +661,11 @@ public class Material {
         public Material build(@NonNull Engine engine) {
             long nativeMaterial = nBuilderBuild(engine.getNativeObject(), mBuffer, mSize);
             if (nativeMaterial == 0) throw new IllegalStateException("Couldn't create Material");
-            return new Material(nativeMaterial);
+            Material material = new Material(nativeMaterial);
+            material.mByteCount = mSize;
+            ResourceTracker.onCreated(engine, material);
+            engine.onCreated(material);
+            return material;
         }
     }
 
@@ -346,7 +679,9 @@ public class Material {
     public MaterialInstance createInstance() {
         long nativeInstance = nCreateInstance(getNativeObject());
         if (nativeInstance == 0) throw new IllegalStateException("Couldn't create MaterialInstance");
-        return new MaterialInstance(this, nativeInstance);
+        MaterialInstance materialInstance = new MaterialInstance(this, nativeInstance);
+        ResourceTracker.onCreated(materialInstance);
+        return materialInstance;
     }
 
     /**
@@ -361,7 +696,9 @@ public class Material {
     public MaterialInstance createInstance(@NonNull String name) {
         long nativeInstance = nCreateInstanceWithName(getNativeObject(), name);
         if (nativeInstance == 0) throw new IllegalStateException("Couldn't create MaterialInstance");
-        return new MaterialInstance(this, nativeInstance);
+        MaterialInstance materialInstance = new MaterialInstance(this, nativeInstance);
+        ResourceTracker.onCreated(materialInstance);
+        return materialInstance;
     }
 
     /** Returns the material's default instance. */
@@ -607,6 +944,69 @@ public class Material {
         return nHasParameter(getNativeObject(), name);
     }
 
+    /**
+     * Returns a handle to the parameter of the given name. The handle can be used with the
+     * <code>setParameter(long, ...)</code> variants of {@link MaterialInstance} instead of the
+     * parameter's name.
+     *
+     * <p>A handle is only valid with the instances whose {@link MaterialInstance#getMaterial()}
+     * is this <code>Material</code> object, other instances reject it. The parameter is still
+     * passed by name to the native material instance: handles validate the parameter once, they
+     * don't make the native call itself cheaper.</p>
+     *
+     * @param name the name of the material parameter
+     * @return a handle to the parameter
+     * @exception IllegalArgumentException if this material has no parameter of that name
+     *
+     * @see MaterialInstance#setParameter(long, float)
+     */
+    public long getParameterHandle(@NonNull String name) {
+        String[] names = getParameterNames();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return ((long) mId << 32) | i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown parameter " + name);
+    }
+
+    @NonNull
+    String getParameterName(long handle) {
+        String[] names = getParameterNames();
+        int index = (int) handle;
+        if ((int) (handle >>> 32) != mId || index < 0 || index >= names.length) {
+            throw new IllegalArgumentException("Parameter handle not obtained from this material");
+        }
+        return names[index];
+    }
+
+    @NonNull
+    private String[] getParameterNames() {
+        if (mParameterNames == null) {
+            List<Parameter> parameters = getParameters();
+            String[] names = new String[parameters.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = parameters.get(i).name;
+            }
+            mParameterNames = names;
+        }
+        return mParameterNames;
+    }
+
+    /**
+     * Returns the layout of this material's uniform parameters in a staging buffer, as used by
+     * {@link MaterialInstance#commitParameters}.
+     *
+     * @see ParameterLayout
+     */
+    @NonNull
+    public ParameterLayout getParameterLayout() {
+        if (mParameterLayout == null) {
+            mParameterLayout = new ParameterLayout(getParameters());
+        }
+        return mParameterLayout;
+    }
+
     /**
      * Sets the value of a bool parameter on this material's default instance.
      *
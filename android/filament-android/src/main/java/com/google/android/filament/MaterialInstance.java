@@ -18,13 +18,18 @@ package com.google.android.filament;
 
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.Size;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
 public class MaterialInstance {
     private Material mMaterial;
     private String mName;
     private long mNativeObject;
     private long mNativeMaterial;
+    @Nullable private Material.ParameterLayout.CommitState mParameterState;
 
     public enum BooleanElement {
         BOOL,
@@ -78,7 +83,9 @@ public class MaterialInstance {
     public static MaterialInstance duplicate(@NonNull MaterialInstance other, String name) {
         long nativeInstance = nDuplicate(other.mNativeObject, name);
         if (nativeInstance == 0) throw new IllegalStateException("Couldn't duplicate MaterialInstance");
-        return new MaterialInstance(other.getMaterial(), nativeInstance);
+        MaterialInstance instance = new MaterialInstance(other.getMaterial(), nativeInstance);
+        ResourceTracker.onCreated(instance);
+        return instance;
     }
 
     /** @return the {@link Material} associated with this instance */
@@ -107,6 +114,7 @@ public class MaterialInstance {
      */
     public void setParameter(@NonNull String name, boolean x) {
         nSetParameterBool(getNativeObject(), name, x);
+        onParameterSet(name);
     }
 
     /**
@@ -117,6 +125,7 @@ public class MaterialInstance {
      */
     public void setParameter(@NonNull String name, float x) {
         nSetParameterFloat(getNativeObject(), name, x);
+        onParameterSet(name);
     }
 
     /**
@@ -127,6 +136,7 @@ public class MaterialInstance {
      */
     public void setParameter(@NonNull String name, int x) {
         nSetParameterInt(getNativeObject(), name, x);
+        onParameterSet(name);
     }
 
     /**
@@ -138,6 +148,7 @@ public class MaterialInstance {
      */
     public void setParameter(@NonNull String name, boolean x, boolean y) {
         nSetParameterBool2(getNativeObject(), name, x, y);
+        onParameterSet(name);
     }
 
     /**
@@ -149,6 +160,7 @@ public class MaterialInstance {
      */
     public void setParameter(@NonNull String name, float x, float y) {
         nSetParameterFloat2(getNativeObject(), name, x, y);
+        onParameterSet(name);
     }
 
     /**
@@ -160,6 +172,7 @@ public class MaterialInstance {
      */
     public void setParameter(@NonNull String name, int x, int y) {
         nSetParameterInt2(getNativeObject(), name, x, y);
+        onParameterSet(name);
     }
 
     /**
@@ -172,6 +185,7 @@ public class MaterialInstance {
      */
     public void setParameter(@NonNull String name, boolean x, boolean y, boolean z) {
         nSetParameterBool3(getNativeObject(), name, x, y, z);
+        onParameterSet(name);
     }
 
     /**
@@ -184,6 +198,7 @@ public class MaterialInstance {
      */
     public void setParameter(@NonNull String name, float x, float y, float z) {
         nSetParameterFloat3(getNativeObject(), name, x, y, z);
+        onParameterSet(name);
     }
 
     /**
@@ -196,6 +211,7 @@ public class MaterialInstance {
      */
     public void setParameter(@NonNull String name, int x, int y, int z) {
         nSetParameterInt3(getNativeObject(), name, x, y, z);
+        onParameterSet(name);
     }
 
     /**
@@ -209,6 +225,7 @@ public class MaterialInstance {
      */
     public void setParameter(@NonNull String name, boolean x, boolean y, boolean z, boolean w) {
         nSetParameterBool4(getNativeObject(), name, x, y, z, w);
+        onParameterSet(name);
     }
 
     /**
@@ -222,6 +239,7 @@ public class MaterialInstance {
      */
     public void setParameter(@NonNull String name, float x, float y, float z, float w) {
         nSetParameterFloat4(getNativeObject(), name, x, y, z, w);
+        onParameterSet(name);
     }
 
     /**
@@ -235,6 +253,7 @@ public class MaterialInstance {
      */
     public void setParameter(@NonNull String name, int x, int y, int z, int w) {
         nSetParameterInt4(getNativeObject(), name, x, y, z, w);
+        onParameterSet(name);
     }
 
     /**
@@ -273,6 +292,7 @@ public class MaterialInstance {
             @NonNull BooleanElement type, @NonNull boolean[] v,
             @IntRange(from = 0) int offset, @IntRange(from = 1) int count) {
         nSetBooleanParameterArray(getNativeObject(), name, type.ordinal(), v, offset, count);
+        onParameterSet(name);
     }
 
     /**
@@ -295,6 +315,7 @@ public class MaterialInstance {
             @NonNull IntElement type, @NonNull int[] v,
             @IntRange(from = 0) int offset, @IntRange(from = 1) int count) {
         nSetIntParameterArray(getNativeObject(), name, type.ordinal(), v, offset, count);
+        onParameterSet(name);
     }
 
     /**
@@ -317,6 +338,7 @@ public class MaterialInstance {
             @NonNull FloatElement type, @NonNull float[] v,
             @IntRange(from = 0) int offset, @IntRange(from = 1) int count) {
         nSetFloatParameterArray(getNativeObject(), name, type.ordinal(), v, offset, count);
+        onParameterSet(name);
     }
 
     /**
@@ -332,6 +354,7 @@ public class MaterialInstance {
             float r, float g, float b) {
         float[] color = Colors.toLinear(type, r, g, b);
         nSetParameterFloat3(getNativeObject(), name, color[0], color[1], color[2]);
+        onParameterSet(name);
     }
 
     /**
@@ -348,6 +371,325 @@ public class MaterialInstance {
             float r, float g, float b, float a) {
         float[] color = Colors.toLinear(type, r, g, b, a);
         nSetParameterFloat4(getNativeObject(), name, color[0], color[1], color[2], color[3]);
+        onParameterSet(name);
+    }
+
+    /**
+     * Sets the value of a bool parameter.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param x      the value of the material parameter
+     * @see #setParameter(String, boolean)
+     */
+    public void setParameter(long handle, boolean x) {
+        setParameter(getParameterName(handle), x);
+    }
+
+    /**
+     * Sets the value of a float parameter.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param x      the value of the material parameter
+     * @see #setParameter(String, float)
+     */
+    public void setParameter(long handle, float x) {
+        setParameter(getParameterName(handle), x);
+    }
+
+    /**
+     * Sets the value of an int parameter.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param x      the value of the material parameter
+     * @see #setParameter(String, int)
+     */
+    public void setParameter(long handle, int x) {
+        setParameter(getParameterName(handle), x);
+    }
+
+    /**
+     * Sets the value of a bool2 parameter.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param x      the value of the first component
+     * @param y      the value of the second component
+     * @see #setParameter(String, boolean, boolean)
+     */
+    public void setParameter(long handle, boolean x, boolean y) {
+        setParameter(getParameterName(handle), x, y);
+    }
+
+    /**
+     * Sets the value of a float2 parameter.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param x      the value of the first component
+     * @param y      the value of the second component
+     * @see #setParameter(String, float, float)
+     */
+    public void setParameter(long handle, float x, float y) {
+        setParameter(getParameterName(handle), x, y);
+    }
+
+    /**
+     * Sets the value of an int2 parameter.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param x      the value of the first component
+     * @param y      the value of the second component
+     * @see #setParameter(String, int, int)
+     */
+    public void setParameter(long handle, int x, int y) {
+        setParameter(getParameterName(handle), x, y);
+    }
+
+    /**
+     * Sets the value of a bool3 parameter.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param x      the value of the first component
+     * @param y      the value of the second component
+     * @param z      the value of the third component
+     * @see #setParameter(String, boolean, boolean, boolean)
+     */
+    public void setParameter(long handle, boolean x, boolean y, boolean z) {
+        setParameter(getParameterName(handle), x, y, z);
+    }
+
+    /**
+     * Sets the value of a float3 parameter.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param x      the value of the first component
+     * @param y      the value of the second component
+     * @param z      the value of the third component
+     * @see #setParameter(String, float, float, float)
+     */
+    public void setParameter(long handle, float x, float y, float z) {
+        setParameter(getParameterName(handle), x, y, z);
+    }
+
+    /**
+     * Sets the value of an int3 parameter.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param x      the value of the first component
+     * @param y      the value of the second component
+     * @param z      the value of the third component
+     * @see #setParameter(String, int, int, int)
+     */
+    public void setParameter(long handle, int x, int y, int z) {
+        setParameter(getParameterName(handle), x, y, z);
+    }
+
+    /**
+     * Sets the value of a bool4 parameter.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param x      the value of the first component
+     * @param y      the value of the second component
+     * @param z      the value of the third component
+     * @param w      the value of the fourth component
+     * @see #setParameter(String, boolean, boolean, boolean, boolean)
+     */
+    public void setParameter(long handle, boolean x, boolean y, boolean z, boolean w) {
+        setParameter(getParameterName(handle), x, y, z, w);
+    }
+
+    /**
+     * Sets the value of a float4 parameter.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param x      the value of the first component
+     * @param y      the value of the second component
+     * @param z      the value of the third component
+     * @param w      the value of the fourth component
+     * @see #setParameter(String, float, float, float, float)
+     */
+    public void setParameter(long handle, float x, float y, float z, float w) {
+        setParameter(getParameterName(handle), x, y, z, w);
+    }
+
+    /**
+     * Sets the value of an int4 parameter.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param x      the value of the first component
+     * @param y      the value of the second component
+     * @param z      the value of the third component
+     * @param w      the value of the fourth component
+     * @see #setParameter(String, int, int, int, int)
+     */
+    public void setParameter(long handle, int x, int y, int z, int w) {
+        setParameter(getParameterName(handle), x, y, z, w);
+    }
+
+    /**
+     * Sets a texture and sampler parameter.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param texture the texture to set as parameter
+     * @param sampler the sampler to be used with this texture
+     * @see #setParameter(String, Texture, TextureSampler)
+     */
+    public void setParameter(long handle,
+            @NonNull Texture texture, @NonNull TextureSampler sampler) {
+        setParameter(getParameterName(handle), texture, sampler);
+    }
+
+    /**
+     * Set a bool parameter array.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param type   the number of components for each individual parameter
+     * @param v      array of values to set to the parameter array
+     * @param offset the number of elements in <code>v</code> to skip
+     * @param count  the number of elements in the parameter array to set
+     * @see #setParameter(String, BooleanElement, boolean[], int, int)
+     */
+    public void setParameter(long handle,
+            @NonNull BooleanElement type, @NonNull boolean[] v,
+            @IntRange(from = 0) int offset, @IntRange(from = 1) int count) {
+        setParameter(getParameterName(handle), type, v, offset, count);
+    }
+
+    /**
+     * Set an int parameter array.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param type   the number of components for each individual parameter
+     * @param v      array of values to set to the parameter array
+     * @param offset the number of elements in <code>v</code> to skip
+     * @param count  the number of elements in the parameter array to set
+     * @see #setParameter(String, IntElement, int[], int, int)
+     */
+    public void setParameter(long handle,
+            @NonNull IntElement type, @NonNull int[] v,
+            @IntRange(from = 0) int offset, @IntRange(from = 1) int count) {
+        setParameter(getParameterName(handle), type, v, offset, count);
+    }
+
+    /**
+     * Set a float parameter array.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param type   the number of components for each individual parameter
+     * @param v      array of values to set to the parameter array
+     * @param offset the number of elements in <code>v</code> to skip
+     * @param count  the number of elements in the parameter array to set
+     * @see #setParameter(String, FloatElement, float[], int, int)
+     */
+    public void setParameter(long handle,
+            @NonNull FloatElement type, @NonNull float[] v,
+            @IntRange(from = 0) int offset, @IntRange(from = 1) int count) {
+        setParameter(getParameterName(handle), type, v, offset, count);
+    }
+
+    /**
+     * Sets the color of the given parameter.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param type   whether the color is specified in the linear or sRGB space
+     * @param r      red component
+     * @param g      green component
+     * @param b      blue component
+     * @see #setParameter(String, Colors.RgbType, float, float, float)
+     */
+    public void setParameter(long handle, @NonNull Colors.RgbType type,
+            float r, float g, float b) {
+        setParameter(getParameterName(handle), type, r, g, b);
+    }
+
+    /**
+     * Sets the color of the given parameter.
+     *
+     * @param handle a parameter handle obtained from {@link Material#getParameterHandle}
+     * @param type   whether the color is specified in the linear or sRGB space
+     * @param r      red component
+     * @param g      green component
+     * @param b      blue component
+     * @param a      alpha component
+     * @see #setParameter(String, Colors.RgbaType, float, float, float, float)
+     */
+    public void setParameter(long handle, @NonNull Colors.RgbaType type,
+            float r, float g, float b, float a) {
+        setParameter(getParameterName(handle), type, r, g, b, a);
+    }
+
+    /**
+     * Commits the uniform parameters staged in a buffer laid out as described by
+     * {@link Material#getParameterLayout()}.
+     *
+     * <p>This is a Java-side staging helper, not a single native update: each parameter that
+     * needs to be sent is forwarded with its own <code>setParameter</code> call. A parameter is
+     * sent when:</p>
+     * <ul>
+     *     <li>it was marked with {@link #markParameterDirty} since the previous commit, which is
+     *     required to send a parameter for the first time,</li>
+     *     <li>or it was committed before and its staged value changed since then.</li>
+     * </ul>
+     *
+     * <p>Parameters never marked are left untouched and keep their current value, such as the
+     * material's defaults, whatever the content of the buffer. Once committed, a parameter is
+     * owned by the staging buffer: setting it by name with another method makes the next commit
+     * send the staged value again. The buffer's position is not modified.</p>
+     *
+     * <pre>{@code
+     *     Material.ParameterLayout layout = material.getParameterLayout();
+     *     ByteBuffer staging = layout.createBuffer();
+     *     int roughness = layout.getOffset("roughness");
+     *     ...
+     *     staging.putFloat(roughness, 0.0f);
+     *     instance.markParameterDirty("roughness");  // first commit of roughness
+     *     instance.commitParameters(staging);
+     *     ...
+     *     staging.putFloat(roughness, 0.5f);         // detected by value from now on
+     *     instance.commitParameters(staging);
+     * }</pre>
+     *
+     * @param buffer a buffer of at least {@link Material.ParameterLayout#getSize()} bytes,
+     *               starting at its current position
+     * @exception BufferUnderflowException if <code>buffer</code> is too small for the layout
+     */
+    public void commitParameters(@NonNull ByteBuffer buffer) {
+        Material.ParameterLayout layout = getMaterial().getParameterLayout();
+        if (buffer.remaining() < layout.getSize()) {
+            throw new BufferUnderflowException();
+        }
+        layout.commit(this, buffer, getParameterState(layout));
+    }
+
+    /**
+     * Marks a uniform parameter to be sent by the next call to {@link #commitParameters},
+     * whatever its staged value.
+     *
+     * @param name the name of the material parameter
+     * @exception IllegalArgumentException if the material has no uniform parameter of that name
+     */
+    public void markParameterDirty(@NonNull String name) {
+        Material.ParameterLayout layout = getMaterial().getParameterLayout();
+        getParameterState(layout).markDirty(layout.getIndex(name));
+    }
+
+    @NonNull
+    private Material.ParameterLayout.CommitState getParameterState(
+            @NonNull Material.ParameterLayout layout) {
+        if (mParameterState == null) {
+            mParameterState = layout.createCommitState();
+        }
+        return mParameterState;
+    }
+
+    @NonNull
+    private String getParameterName(long handle) {
+        return getMaterial().getParameterName(handle);
+    }
+
+    // only instances using commitParameters() pay for the lookup
+    private void onParameterSet(@NonNull String name) {
+        if (mParameterState != null) {
+            getMaterial().getParameterLayout().onParameterSet(mParameterState, name);
+        }
     }
 
     /**
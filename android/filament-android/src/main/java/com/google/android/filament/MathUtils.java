@@ -20,7 +20,27 @@ import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 import androidx.annotation.Size;
 
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
 public final class MathUtils {
+    /**
+     * Storage format of the quaternions produced by {@link #packTangentFrames}.
+     */
+    public enum TangentFrameFormat {
+        /** 4 floats per quaternion, for {@link VertexBuffer.AttributeType#FLOAT4} attributes. */
+        FLOAT4,
+        /**
+         * 4 signed normalized 16-bit integers per quaternion, for
+         * {@link VertexBuffer.AttributeType#SHORT4} attributes declared as normalized.
+         */
+        SHORT4
+    }
+
     private MathUtils() { }
 
     /**
@@ -91,6 +111,177 @@ public final class MathUtils {
             normalX, normalY, normalZ, quaternion, offset);
     }
 
+    /**
+     * Packs the tangent frames of <code>count</code> vertices into quaternions, as
+     * {@link #packTangentFrame} does for a single vertex.
+     *
+     * <p>This method runs entirely in Java and processes a whole mesh without crossing into
+     * native code, which makes it suitable for meshes deformed on the CPU every frame. It uses
+     * the same algorithm and the same 16-bit bias as {@link #packTangentFrame}, for both
+     * formats.</p>
+     *
+     * <p>All buffers are read or written starting at their current position, and their positions
+     * are not modified. A {@link ByteBuffer} output is written using its own byte order.</p>
+     *
+     * @param tangents       3 floats per vertex
+     * @param bitangents     3 floats per vertex
+     * @param normals        3 floats per vertex
+     * @param outQuaternions a {@link FloatBuffer} or {@link ByteBuffer} for
+     *                       {@link TangentFrameFormat#FLOAT4}, a {@link ShortBuffer} or
+     *                       {@link ByteBuffer} for {@link TangentFrameFormat#SHORT4}
+     * @param count          number of vertices to process
+     * @param format         storage format of the resulting quaternions
+     * @exception BufferUnderflowException if an input buffer holds less than <code>count</code>
+     *                                     vectors
+     * @exception BufferOverflowException if <code>outQuaternions</code> can't hold
+     *                                    <code>count</code> quaternions
+     * @exception IllegalArgumentException if <code>outQuaternions</code> doesn't match
+     *                                     <code>format</code>
+     */
+    public static void packTangentFrames(@NonNull FloatBuffer tangents,
+            @NonNull FloatBuffer bitangents, @NonNull FloatBuffer normals,
+            @NonNull Buffer outQuaternions, @IntRange(from = 0) int count,
+            @NonNull TangentFrameFormat format) {
+        if (tangents.remaining() < count * 3 || bitangents.remaining() < count * 3 ||
+                normals.remaining() < count * 3) {
+            throw new BufferUnderflowException();
+        }
+
+        final boolean snorm16 = format == TangentFrameFormat.SHORT4;
+        final ByteBuffer outBytes =
+                outQuaternions instanceof ByteBuffer ? (ByteBuffer) outQuaternions : null;
+        if (outBytes == null && (snorm16 ? !(outQuaternions instanceof ShortBuffer) :
+                !(outQuaternions instanceof FloatBuffer))) {
+            throw new IllegalArgumentException("Invalid buffer type for " + format);
+        }
+        final int elementSize = snorm16 ? 2 : 4;
+        final int remaining = outBytes != null ?
+                outBytes.remaining() / elementSize : outQuaternions.remaining();
+        if (remaining < count * 4) {
+            throw new BufferOverflowException();
+        }
+
+        // bias is 1 / (2^(nb_bits - 1) - 1) for 16-bit storage, see packTangentFrame()
+        final float bias = 1.0f / 32767.0f;
+        final float factor = (float) Math.sqrt(1.0 - (double) bias * (double) bias);
+
+        final float[] m = new float[9];
+        final float[] q = new float[4];
+        final int t0 = tangents.position();
+        final int b0 = bitangents.position();
+        final int n0 = normals.position();
+        final int q0 = outQuaternions.position();
+        for (int i = 0; i < count; i++) {
+            final int i3 = i * 3;
+            packTangentFrame(
+                    tangents.get(t0 + i3), tangents.get(t0 + i3 + 1), tangents.get(t0 + i3 + 2),
+                    bitangents.get(b0 + i3), bitangents.get(b0 + i3 + 1), bitangents.get(b0 + i3 + 2),
+                    normals.get(n0 + i3), normals.get(n0 + i3 + 1), normals.get(n0 + i3 + 2),
+                    bias, factor, m, q);
+
+            if (outBytes != null) {
+                int o = q0 + i * 4 * elementSize;
+                for (int j = 0; j < 4; j++, o += elementSize) {
+                    if (snorm16) {
+                        outBytes.putShort(o, packSnorm16(q[j]));
+                    } else {
+                        outBytes.putFloat(o, q[j]);
+                    }
+                }
+            } else if (snorm16) {
+                ShortBuffer out = (ShortBuffer) outQuaternions;
+                for (int j = 0; j < 4; j++) {
+                    out.put(q0 + i * 4 + j, packSnorm16(q[j]));
+                }
+            } else {
+                FloatBuffer out = (FloatBuffer) outQuaternions;
+                for (int j = 0; j < 4; j++) {
+                    out.put(q0 + i * 4 + j, q[j]);
+                }
+            }
+        }
+    }
+
+    // Java version of mat3f::packTangentFrame(), the matrix columns are t, b and n.
+    // m is scratch storage for the orthonormal basis, so that the batch doesn't allocate.
+    private static void packTangentFrame(
+            float tx, float ty, float tz,
+            float bx, float by, float bz,
+            float nx, float ny, float nz,
+            float bias, float factor,
+            @NonNull @Size(min = 9) float[] m, @NonNull @Size(min = 4) float[] q) {
+        // orthonormal basis {t, n x t, n}
+        m[0] = tx;
+        m[1] = ty;
+        m[2] = tz;
+        m[3] = ny * tz - nz * ty;
+        m[4] = nz * tx - nx * tz;
+        m[5] = nx * ty - ny * tx;
+        m[6] = nx;
+        m[7] = ny;
+        m[8] = nz;
+
+        // mat3f::toQuaternion(), m[c * 3 + r] is column c, row r
+        final float trace = m[0] + m[4] + m[8];
+        if (trace > 0) {
+            float s = (float) Math.sqrt(trace + 1);
+            q[3] = 0.5f * s;
+            s = 0.5f / s;
+            q[0] = (m[5] - m[7]) * s;
+            q[1] = (m[6] - m[2]) * s;
+            q[2] = (m[1] - m[3]) * s;
+        } else {
+            int i = 0;
+            if (m[4] > m[0]) { i = 1; }
+            if (m[8] > m[i * 4]) { i = 2; }
+            final int j = (i + 1) % 3;
+            final int k = (j + 1) % 3;
+            float s = (float) Math.sqrt((m[i * 4] - (m[j * 4] + m[k * 4])) + 1);
+            q[i] = 0.5f * s;
+            if (s != 0) {
+                s = 0.5f / s;
+            }
+            q[3] = (m[j * 3 + k] - m[k * 3 + j]) * s;
+            q[j] = (m[i * 3 + j] + m[j * 3 + i]) * s;
+            q[k] = (m[i * 3 + k] + m[k * 3 + i]) * s;
+        }
+
+        // positive(normalize(q))
+        final float length = (float) Math.sqrt(q[0] * q[0] + q[1] * q[1] + q[2] * q[2] + q[3] * q[3]);
+        if (length == 0) {
+            q[0] = 0;
+            q[1] = 0;
+            q[2] = 0;
+            q[3] = 1;
+        } else {
+            final float sign = q[3] < 0 ? -1.0f : 1.0f;
+            for (int c = 0; c < 4; c++) {
+                q[c] = sign * (q[c] / length);
+            }
+        }
+
+        // ensure w is never 0
+        if (q[3] < bias) {
+            q[3] = bias;
+            q[0] *= factor;
+            q[1] *= factor;
+            q[2] *= factor;
+        }
+
+        // if there's a reflection ((n x t) . b <= 0), make sure w is negative
+        if (m[3] * bx + m[4] * by + m[5] * bz < 0) {
+            for (int c = 0; c < 4; c++) {
+                q[c] = -q[c];
+            }
+        }
+    }
+
+    private static short packSnorm16(float v) {
+        final float c = Math.min(1.0f, Math.max(-1.0f, v)) * 32767.0f;
+        // rounds half away from zero, like std::round()
+        return (short) (c < 0 ? -Math.round(-c) : Math.round(c));
+    }
+
     private static native void nPackTangentFrame(
         float tangentX, float tangentY, float tangentZ,
         float bitangentX, float bitangentY, float bitangentZ,
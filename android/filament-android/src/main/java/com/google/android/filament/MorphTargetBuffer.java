@@ -29,15 +29,19 @@ public class MorphTargetBuffer {
         mNativeObject = nativeMorphTargetBuffer;
     }
 
-    public static class Builder {
-        @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"})
-        // Keep to finalize native resources
-        private final MorphTargetBuffer.Builder.BuilderFinalizer mFinalizer;
-        private final long mNativeBuilder;
+    public static class Builder implements AutoCloseable {
+        private static final NativeReaper.Destructor sBuilderDestructor =
+                new NativeReaper.Destructor() {
+                    @Override
+                    public void destroy(long nativeObject) { nDestroyBuilder(nativeObject); }
+                };
+
+        private final NativeReaper.Cleanable mCleanable;
+        private long mNativeBuilder;
 
         public Builder() {
             mNativeBuilder = nCreateBuilder();
-            mFinalizer = new MorphTargetBuffer.Builder.BuilderFinalizer(mNativeBuilder);
+            mCleanable = NativeReaper.register(this, mNativeBuilder, sBuilderDestructor);
         }
 
         /**
@@ -78,28 +82,23 @@ public class MorphTargetBuffer {
          */
         @NonNull
         public MorphTargetBuffer build(@NonNull Engine engine) {
+            if (mNativeBuilder == 0) {
+                throw new IllegalStateException("Calling method on closed Builder");
+            }
             long nativeMorphTargetBuffer = nBuilderBuild(mNativeBuilder, engine.getNativeObject());
             if (nativeMorphTargetBuffer == 0)
                 throw new IllegalStateException("Couldn't create MorphTargetBuffer");
             return new MorphTargetBuffer(nativeMorphTargetBuffer);
         }
 
-        private static class BuilderFinalizer {
-            private final long mNativeObject;
-
-            BuilderFinalizer(long nativeObject) {
-                mNativeObject = nativeObject;
-            }
-
-            @Override
-            public void finalize() {
-                try {
-                    super.finalize();
-                } catch (Throwable t) { // Ignore
-                } finally {
-                    nDestroyBuilder(mNativeObject);
-                }
-            }
+        /**
+         * Frees the native builder now rather than when this <code>Builder</code> becomes
+         * unreachable. The <code>Builder</code> must not be used after this call.
+         */
+        @Override
+        public void close() {
+            mCleanable.clean();
+            mNativeBuilder = 0;
         }
     }
 
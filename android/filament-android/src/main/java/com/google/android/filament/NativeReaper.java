@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.filament;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+
+/**
+ * Frees native objects owned by Java objects once these Java objects become unreachable.
+ *
+ * <p>This replaces <code>finalize()</code> for the short-lived native objects of the Java
+ * bindings, such as builders. Objects are tracked with phantom references, which the garbage
+ * collector processes without involving the finalizer queue; a single daemon thread then calls
+ * the {@link Destructor} of each unreachable owner.</p>
+ *
+ * <p>The native object can also be freed deterministically with {@link Cleanable#clean()}, in
+ * which case the owner must not use it anymore. A native object is always freed exactly once.</p>
+ *
+ * <p>The {@link Destructor} must not reference its owner, otherwise the owner never becomes
+ * unreachable. It is typically a static field of the owner's class.</p>
+ *
+ * <pre>
+ * private static final NativeReaper.Destructor sDestructor = new NativeReaper.Destructor() {
+ *     &#64;Override
+ *     public void destroy(long nativeObject) { nDestroy(nativeObject); }
+ * };
+ *
+ * mCleanable = NativeReaper.register(this, mNativeObject, sDestructor);
+ * </pre>
+ */
+public final class NativeReaper {
+    private static final ReferenceQueue<Object> sQueue = new ReferenceQueue<>();
+    private static final Object sLock = new Object();
+
+    // registered Cleanables are kept reachable by this list, guarded by sLock
+    @NonNull private static final Cleanable sHead = new Cleanable();
+
+    @Nullable private static Thread sThread;
+
+    /**
+     * Frees a native object.
+     */
+    public interface Destructor {
+        /**
+         * Called exactly once, from the reaper thread or from {@link Cleanable#clean()}.
+         *
+         * @param nativeObject the native object to free
+         */
+        void destroy(long nativeObject);
+    }
+
+    /**
+     * A native object registered with {@link #register}.
+     */
+    public static final class Cleanable extends PhantomReference<Object> {
+        private final long mNativeObject;
+        @Nullable private final Destructor mDestructor;
+        @Nullable private Cleanable mPrev;
+        @Nullable private Cleanable mNext;
+
+        // list head
+        Cleanable() {
+            super(null, null);
+            mNativeObject = 0;
+            mDestructor = null;
+            mPrev = this;
+            mNext = this;
+        }
+
+        Cleanable(@NonNull Object owner, long nativeObject, @NonNull Destructor destructor) {
+            super(owner, sQueue);
+            mNativeObject = nativeObject;
+            mDestructor = destructor;
+        }
+
+        /**
+         * Frees the native object now, if it hasn't been freed yet. This can be called any number
+         * of times.
+         */
+        public void clean() {
+            if (unlink()) {
+                clear();
+                mDestructor.destroy(mNativeObject);
+            }
+        }
+
+        private boolean unlink() {
+            synchronized (sLock) {
+                if (mNext == null) {
+                    return false;
+                }
+                mPrev.mNext = mNext;
+                mNext.mPrev = mPrev;
+                mPrev = null;
+                mNext = null;
+                return true;
+            }
+        }
+    }
+
+    private NativeReaper() {
+    }
+
+    /**
+     * Registers a native object to be freed when its owner becomes phantom reachable.
+     *
+     * @param owner        the Java object owning the native object
+     * @param nativeObject the native object
+     * @param destructor   frees <code>nativeObject</code>, must not reference <code>owner</code>
+     * @return a {@link Cleanable} that can be used to free the native object early
+     */
+    @NonNull
+    public static Cleanable register(@NonNull Object owner, long nativeObject,
+            @NonNull Destructor destructor) {
+        Cleanable cleanable = new Cleanable(owner, nativeObject, destructor);
+        synchronized (sLock) {
+            cleanable.mNext = sHead.mNext;
+            cleanable.mPrev = sHead;
+            sHead.mNext.mPrev = cleanable;
+            sHead.mNext = cleanable;
+            if (sThread == null) {
+                sThread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        drain();
+                    }
+                }, "FilamentNativeReaper");
+                sThread.setDaemon(true);
+                sThread.start();
+            }
+        }
+        return cleanable;
+    }
+
+    private static void drain() {
+        try {
+            while (true) {
+                try {
+                    ((Cleanable) sQueue.remove()).clean();
+                } catch (InterruptedException e) {
+                    // keep draining, the reaper thread lives as long as the process
+                } catch (RuntimeException e) {
+                    // a failing destructor must not stop the reaper
+                    Platform.get().warn("NativeReaper: destructor failed: " + e);
+                }
+            }
+        } finally {
+            // an Error escaped, the next register() starts a new reaper on the same queue
+            synchronized (sLock) {
+                sThread = null;
+            }
+        }
+    }
+}
@@ -21,8 +21,10 @@ import androidx.annotation.NonNull;
 import com.google.android.filament.proguard.UsedByNative;
 
 import java.nio.Buffer;
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.nio.LongBuffer;
@@ -44,6 +46,7 @@ final class NioUtils {
     private NioUtils() {
     }
 
+    // address is the address of any direct buffer, including a MappedByteBuffer or a view of it
     @UsedByNative("NioUtils.cpp")
     static long getBasePointer(@NonNull Buffer b, long address, int sizeShift) {
         return address != 0 ? address + (b.position() << sizeShift) : 0;
@@ -76,4 +79,50 @@ final class NioUtils {
         }
         return BufferType.DOUBLE.ordinal();
     }
+
+    /**
+     * @return log2 of the size in bytes of an element of the given buffer
+     */
+    static int getSizeShift(@NonNull Buffer b) {
+        if (b instanceof ByteBuffer) {
+            return 0;
+        } else if (b instanceof CharBuffer || b instanceof ShortBuffer) {
+            return 1;
+        } else if (b instanceof IntBuffer || b instanceof FloatBuffer) {
+            return 2;
+        }
+        return 3;
+    }
+
+    /**
+     * Copies the remaining elements of <code>src</code> at the position of <code>dst</code>,
+     * whatever the type of <code>src</code>. The position of <code>src</code> is left unchanged,
+     * the position of <code>dst</code> is advanced by the number of bytes copied.
+     */
+    static void copy(@NonNull Buffer src, @NonNull ByteBuffer dst) {
+        int byteCount = src.remaining() << getSizeShift(src);
+        if (byteCount > dst.remaining()) {
+            throw new BufferOverflowException();
+        }
+        if (src instanceof ByteBuffer) {
+            dst.put(((ByteBuffer) src).duplicate());
+            return;
+        }
+        ByteBuffer view = dst.slice();
+        view.order(dst.order());
+        if (src instanceof CharBuffer) {
+            view.asCharBuffer().put(((CharBuffer) src).duplicate());
+        } else if (src instanceof ShortBuffer) {
+            view.asShortBuffer().put(((ShortBuffer) src).duplicate());
+        } else if (src instanceof IntBuffer) {
+            view.asIntBuffer().put(((IntBuffer) src).duplicate());
+        } else if (src instanceof LongBuffer) {
+            view.asLongBuffer().put(((LongBuffer) src).duplicate());
+        } else if (src instanceof FloatBuffer) {
+            view.asFloatBuffer().put(((FloatBuffer) src).duplicate());
+        } else {
+            view.asDoubleBuffer().put(((DoubleBuffer) src).duplicate());
+        }
+        dst.position(dst.position() + byteCount);
+    }
 }
@@ -67,15 +67,20 @@ public class RenderTarget {
     /**
      * Constructs <code>RenderTarget</code> objects using a builder pattern.
      */
-    public static class Builder {
-        @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"})
-        private final BuilderFinalizer mFinalizer;
-        private final long mNativeBuilder;
+    public static class Builder implements AutoCloseable {
+        private static final NativeReaper.Destructor sBuilderDestructor =
+                new NativeReaper.Destructor() {
+                    @Override
+                    public void destroy(long nativeObject) { nDestroyBuilder(nativeObject); }
+                };
+
+        private final NativeReaper.Cleanable mCleanable;
+        private long mNativeBuilder;
         private final Texture[] mTextures = new Texture[ATTACHMENT_COUNT];
 
         public Builder() {
             mNativeBuilder = nCreateBuilder();
-            mFinalizer = new BuilderFinalizer(mNativeBuilder);
+            mCleanable = NativeReaper.register(this, mNativeBuilder, sBuilderDestructor);
         }
 
         /**
@@ -141,28 +146,25 @@ public class RenderTarget {
          */
         @NonNull
         public RenderTarget build(@NonNull Engine engine) {
+            if (mNativeBuilder == 0) {
+                throw new IllegalStateException("Calling method on closed Builder");
+            }
             long nativeRenderTarget = nBuilderBuild(mNativeBuilder, engine.getNativeObject());
             if (nativeRenderTarget == 0)
                 throw new IllegalStateException("Couldn't create RenderTarget");
-            return new RenderTarget(nativeRenderTarget, this);
+            RenderTarget renderTarget = new RenderTarget(nativeRenderTarget, this);
+            ResourceTracker.onCreated(engine, renderTarget);
+            return renderTarget;
         }
 
-        private static class BuilderFinalizer {
-            private final long mNativeObject;
-
-            BuilderFinalizer(long nativeObject) {
-                mNativeObject = nativeObject;
-            }
-
-            @Override
-            public void finalize() {
-                try {
-                    super.finalize();
-                } catch (Throwable t) { // Ignore
-                } finally {
-                    nDestroyBuilder(mNativeObject);
-                }
-            }
+        /**
+         * Frees the native builder now rather than when this <code>Builder</code> becomes
+         * unreachable. The <code>Builder</code> must not be used after this call.
+         */
+        @Override
+        public void close() {
+            mCleanable.clean();
+            mNativeBuilder = 0;
         }
     }
 
@@ -23,6 +23,7 @@ import androidx.annotation.Size;
 
 import java.nio.Buffer;
 import java.nio.BufferOverflowException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Set;
@@ -63,6 +64,13 @@ public class RenderableManager {
             VertexBuffer.VertexAttribute.values();
 
     private long mNativeObject;
+    @NonNull private final EntityInstanceCache mInstanceCache =
+            new EntityInstanceCache(new EntityInstanceCache.NativeLookup() {
+                @Override
+                public int getInstance(int entity) {
+                    return nGetInstance(mNativeObject, entity);
+                }
+            });
 
     RenderableManager(long nativeRenderableManager) {
         mNativeObject = nativeRenderableManager;
@@ -80,13 +88,55 @@ public class RenderableManager {
      */
     @EntityInstance
     public int getInstance(@Entity int entity) {
-        return nGetInstance(mNativeObject, entity);
+        return mInstanceCache.lookup(entity);
+    }
+
+    /**
+     * Gets the {@link EntityInstance}s of the renderable components associated with many entities.
+     *
+     * @param entities an array of {@link Entity}
+     * @param out      receives the {@link EntityInstance} of each entity, 0 for entities without
+     *                 a renderable component. Must be at least as long as <code>entities</code>.
+     * @return <code>out</code>, for convenience
+     * @see #getInstance
+     */
+    @EntityInstance
+    @NonNull
+    public int[] instancesOf(@Entity @NonNull int[] entities, @EntityInstance @NonNull int[] out) {
+        return mInstanceCache.fill(entities, out);
+    }
+
+    /**
+     * Enables or disables caching {@link #getInstance} results on the Java side. Disabled by
+     * default. The cache is invalidated when components are created or destroyed through this
+     * manager, its builder, or {@link Engine#destroyEntity}. Other changes, for instance by
+     * gltfio, require a call to {@link #invalidateInstanceCache}.
+     *
+     * @param enabled true to enable the cache, false to disable and drop it
+     */
+    public void setInstanceCacheEnabled(boolean enabled) {
+        mInstanceCache.setEnabled(enabled);
+    }
+
+    /**
+     * @return true if the {@link #getInstance} cache is enabled
+     */
+    public boolean isInstanceCacheEnabled() {
+        return mInstanceCache.isEnabled();
+    }
+
+    /**
+     * Drops the {@link #getInstance} cache, see {@link #setInstanceCacheEnabled}.
+     */
+    public void invalidateInstanceCache() {
+        mInstanceCache.invalidate();
     }
 
     /**
      * Destroys the renderable component in the given entity.
      */
     public void destroy(@Entity int entity) {
+        invalidateInstanceCache();
         nDestroy(mNativeObject, entity);
     }
 
@@ -108,10 +158,22 @@ public class RenderableManager {
     /**
      * Adds renderable components to entities using a builder pattern.
      */
-    public static class Builder {
-        @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"}) // Keep to finalize native resources
-        private final BuilderFinalizer mFinalizer;
-        private final long mNativeBuilder;
+    public static class Builder implements AutoCloseable {
+        private static final NativeReaper.Destructor sBuilderDestructor =
+                new NativeReaper.Destructor() {
+                    @Override
+                    public void destroy(long nativeObject) { nDestroyBuilder(nativeObject); }
+                };
+
+        private final int mCount;
+        private NativeReaper.Cleanable mCleanable;
+        private long mNativeBuilder;
+
+        // materials and bounding box set on the builder, restored after the bulk build() applied
+        // its per-entity overrides
+        @NonNull private final MaterialInstance[] mMaterials;
+        @NonNull private final float[] mBoundingBox = new float[6];
+        private boolean mHasBoundingBox;
 
         /**
          * Creates a builder for renderable components.
@@ -119,11 +181,39 @@ public class RenderableManager {
          * @param count the number of primitives that will be supplied to the builder
          *
          * Note that builders typically do not have a long lifetime since clients should discard
-         * them after calling {@link #build}. For a usage example, see {@link RenderableManager}.
+         * them after calling {@link #build}, unless they build many renderables with it, see
+         * {@link #reset}. For a usage example, see {@link RenderableManager}.
          */
         public Builder(@IntRange(from = 1) int count) {
+            mCount = count;
+            mMaterials = new MaterialInstance[count];
             mNativeBuilder = nCreateBuilder(count);
-            mFinalizer = new BuilderFinalizer(mNativeBuilder);
+            mCleanable = NativeReaper.register(this, mNativeBuilder, sBuilderDestructor);
+        }
+
+        /**
+         * Resets this builder to its initial state, as if it had just been constructed, so that it
+         * can be configured again from scratch.
+         *
+         * <p>A builder can be used to build any number of renderables; settings are kept from one
+         * call to <code>build</code> to the next. When creating many similar renderables, it is
+         * cheaper to reuse a single builder and change only what differs between builds than to
+         * create a new builder each time.</p>
+         *
+         * @return this <code>Builder</code> object for chaining calls
+         */
+        @NonNull
+        public Builder reset() {
+            if (mNativeBuilder == 0) {
+                throw new IllegalStateException("Calling method on closed Builder");
+            }
+            mCleanable.clean();
+            mNativeBuilder = nCreateBuilder(mCount);
+            mCleanable = NativeReaper.register(this, mNativeBuilder, sBuilderDestructor);
+            Arrays.fill(mMaterials, null);
+            Arrays.fill(mBoundingBox, 0.0f);
+            mHasBoundingBox = false;
+            return this;
         }
 
         /**
@@ -187,6 +277,9 @@ public class RenderableManager {
         @NonNull
         public Builder material(@IntRange(from = 0) int index, @NonNull MaterialInstance material) {
             nBuilderMaterial(mNativeBuilder, index, material.getNativeObject());
+            if (index < mCount) {
+                mMaterials[index] = material;
+            }
             return this;
         }
 
@@ -215,6 +308,9 @@ public class RenderableManager {
             nBuilderBoundingBox(mNativeBuilder,
                     aabb.getCenter()[0], aabb.getCenter()[1], aabb.getCenter()[2],
                     aabb.getHalfExtent()[0], aabb.getHalfExtent()[1], aabb.getHalfExtent()[2]);
+            System.arraycopy(aabb.getCenter(), 0, mBoundingBox, 0, 3);
+            System.arraycopy(aabb.getHalfExtent(), 0, mBoundingBox, 3, 3);
+            mHasBoundingBox = true;
             return this;
         }
 
@@ -490,24 +586,153 @@ public class RenderableManager {
          * @param entity entity to add the renderable component to
          */
         public void build(@NonNull Engine engine, @Entity int entity) {
+            if (mNativeBuilder == 0) {
+                throw new IllegalStateException("Calling method on closed Builder");
+            }
+            engine.getRenderableManager().invalidateInstanceCache();
             if (!nBuilderBuild(mNativeBuilder, engine.getNativeObject(), entity)) {
                 throw new IllegalStateException(
                     "Couldn't create Renderable component for entity " + entity + ", see log.");
             }
         }
 
-        private static class BuilderFinalizer {
-            private final long mNativeObject;
-            BuilderFinalizer(long nativeObject) { mNativeObject = nativeObject; }
-            @Override
-            public void finalize() {
-                try {
-                    super.finalize();
-                } catch (Throwable t) { // Ignore
-                } finally {
-                    nDestroyBuilder(mNativeObject);
+        /**
+         * Adds the same Renderable component to many entities.
+         *
+         * <p>This is equivalent to calling {@link #build(Engine, int)} for each entity.</p>
+         *
+         * @param engine   reference to the <code>Engine</code> to associate the renderables with
+         * @param entities entities to add the renderable component to
+         * @see #build(Engine, int[], MaterialInstance[], Box[])
+         */
+        public void build(@NonNull Engine engine, @Entity @NonNull int[] entities) {
+            build(engine, entities, null, null);
+        }
+
+        /**
+         * Adds Renderable components to many entities, with optional per-entity materials and
+         * bounding boxes. All the other settings are shared by all the entities.
+         *
+         * <p>Overrides only apply to the entity they are given for. Once all the components are
+         * built, the builder is left with the materials and bounding box it had before the
+         * call. A native builder cannot go back to having no material or no bounding box: when
+         * the builder has none, the corresponding overrides must be given for all the entities
+         * or for none, and the builder keeps the last override.</p>
+         *
+         * @param engine        reference to the <code>Engine</code> to associate the renderables
+         *                      with
+         * @param entities      entities to add the renderable component to
+         * @param materials     optional material overrides, <code>materials[i * count + p]</code> is
+         *                      bound to primitive <code>p</code> of <code>entities[i]</code>, where
+         *                      <code>count</code> is the number of primitives passed to the
+         *                      Builder constructor. <code>null</code> entries keep the builder's
+         *                      material.
+         * @param boundingBoxes optional bounding box overrides, <code>boundingBoxes[i]</code> is
+         *                      used for <code>entities[i]</code>. <code>null</code> entries keep
+         *                      the builder's bounding box.
+         *
+         * @exception ArrayIndexOutOfBoundsException if an override array is too small
+         * @exception IllegalArgumentException if an override is missing for some entities but
+         *                                     not all, where the builder has no value to fall
+         *                                     back to
+         * @exception IllegalStateException if a component could not be created. Components built
+         *                                  before the failure are kept.
+         */
+        public void build(@NonNull Engine engine, @Entity @NonNull int[] entities,
+                @Nullable MaterialInstance[] materials, @Nullable Box[] boundingBoxes) {
+            if (mNativeBuilder == 0) {
+                throw new IllegalStateException("Calling method on closed Builder");
+            }
+            if (materials != null && materials.length < entities.length * mCount) {
+                throw new ArrayIndexOutOfBoundsException(
+                        "Array length must be at least " + entities.length * mCount);
+            }
+            if (boundingBoxes != null && boundingBoxes.length < entities.length) {
+                throw new ArrayIndexOutOfBoundsException(
+                        "Array length must be at least " + entities.length);
+            }
+            if (materials != null) {
+                for (int p = 0; p < mCount; p++) {
+                    if (mMaterials[p] == null &&
+                            isPartial(materials, p, mCount, entities.length)) {
+                        throw new IllegalArgumentException("Builder has no material for "
+                                + "primitive " + p + ", it must be overridden for all entities");
+                    }
                 }
             }
+            if (boundingBoxes != null && !mHasBoundingBox &&
+                    isPartial(boundingBoxes, 0, 1, entities.length)) {
+                throw new IllegalArgumentException(
+                        "Builder has no bounding box, it must be overridden for all entities");
+            }
+
+            engine.getRenderableManager().invalidateInstanceCache();
+            final long nativeEngine = engine.getNativeObject();
+            try {
+                for (int i = 0; i < entities.length; i++) {
+                    if (materials != null) {
+                        for (int p = 0; p < mCount; p++) {
+                            MaterialInstance material = materials[i * mCount + p];
+                            if (material == null) material = mMaterials[p];
+                            if (material != null) {
+                                nBuilderMaterial(mNativeBuilder, p, material.getNativeObject());
+                            }
+                        }
+                    }
+                    if (boundingBoxes != null) {
+                        Box aabb = boundingBoxes[i];
+                        if (aabb != null) {
+                            nBuilderBoundingBox(mNativeBuilder,
+                                    aabb.getCenter()[0], aabb.getCenter()[1], aabb.getCenter()[2],
+                                    aabb.getHalfExtent()[0], aabb.getHalfExtent()[1],
+                                    aabb.getHalfExtent()[2]);
+                        } else if (mHasBoundingBox) {
+                            restoreBoundingBox();
+                        }
+                    }
+                    if (!nBuilderBuild(mNativeBuilder, nativeEngine, entities[i])) {
+                        throw new IllegalStateException("Couldn't create Renderable component "
+                                + "for entity " + entities[i] + ", see log.");
+                    }
+                }
+            } finally {
+                if (materials != null) {
+                    for (int p = 0; p < mCount; p++) {
+                        MaterialInstance material = mMaterials[p];
+                        if (material != null) {
+                            nBuilderMaterial(mNativeBuilder, p, material.getNativeObject());
+                        }
+                    }
+                }
+                if (boundingBoxes != null && mHasBoundingBox) {
+                    restoreBoundingBox();
+                }
+            }
+        }
+
+        // true if values[i * stride + offset] is null for some entities but not all
+        private static boolean isPartial(@NonNull Object[] values, int offset, int stride,
+                int entityCount) {
+            int nullCount = 0;
+            for (int i = 0; i < entityCount; i++) {
+                if (values[i * stride + offset] == null) nullCount++;
+            }
+            return nullCount != 0 && nullCount != entityCount;
+        }
+
+        private void restoreBoundingBox() {
+            final float[] aabb = mBoundingBox;
+            nBuilderBoundingBox(mNativeBuilder, aabb[0], aabb[1], aabb[2], aabb[3], aabb[4], aabb[5]);
+        }
+
+        /**
+         * Frees the native builder now rather than when this <code>Builder</code> becomes
+         * unreachable. The <code>Builder</code> must not be used after this call.
+         */
+        @Override
+        public void close() {
+            mCleanable.clean();
+            mNativeBuilder = 0;
         }
     }
 
@@ -18,6 +18,7 @@ package com.google.android.filament;
 
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.nio.Buffer;
 import java.nio.BufferOverflowException;
@@ -47,6 +48,7 @@ public class Renderer {
     private DisplayInfo mDisplayInfo;
     private FrameRateOptions mFrameRateOptions;
     private ClearOptions mClearOptions;
+    @Nullable private FrameStats mFrameStats;
 
     /**
      * Information about the display this renderer is associated to
@@ -173,6 +175,25 @@ public class Renderer {
         mNativeObject = nativeRenderer;
     }
 
+    /**
+     * Sets a {@link FrameStats} to record the timings of the frames of this
+     * <code>Renderer</code>, or <code>null</code> to stop recording. Recording is disabled by
+     * default.
+     *
+     * @param stats the collector of the timings
+     */
+    public void setFrameStats(@Nullable FrameStats stats) {
+        mFrameStats = stats;
+    }
+
+    /**
+     * @return the {@link FrameStats} set with {@link #setFrameStats}, or <code>null</code>
+     */
+    @Nullable
+    public FrameStats getFrameStats() {
+        return mFrameStats;
+    }
+
     /**
      * Information about the display this Renderer is associated to. This information is needed
      * to accurately compute dynamic-resolution scaling and for frame-pacing.
@@ -299,7 +320,14 @@ public class Renderer {
      * @see #render
      */
     public boolean beginFrame(@NonNull SwapChain swapChain, long frameTimeNanos) {
-        return nBeginFrame(getNativeObject(), swapChain.getNativeObject(), frameTimeNanos);
+        FrameStats stats = mFrameStats;
+        if (stats == null) {
+            return nBeginFrame(getNativeObject(), swapChain.getNativeObject(), frameTimeNanos);
+        }
+        long start = System.nanoTime();
+        boolean drawn = nBeginFrame(getNativeObject(), swapChain.getNativeObject(), frameTimeNanos);
+        stats.onBeginFrame(start, System.nanoTime(), drawn);
+        return drawn;
     }
 
     /**
@@ -315,7 +343,14 @@ public class Renderer {
      * @see #render
      */
     public void endFrame() {
+        FrameStats stats = mFrameStats;
+        if (stats == null) {
+            nEndFrame(getNativeObject());
+            return;
+        }
+        long start = System.nanoTime();
         nEndFrame(getNativeObject());
+        stats.onEndFrame(start, System.nanoTime());
     }
 
     /**
@@ -371,7 +406,14 @@ public class Renderer {
      * @see View
      */
     public void render(@NonNull View view) {
+        FrameStats stats = mFrameStats;
+        if (stats == null) {
+            nRender(getNativeObject(), view.getNativeObject());
+            return;
+        }
+        long start = System.nanoTime();
         nRender(getNativeObject(), view.getNativeObject());
+        stats.onRender(start, System.nanoTime());
     }
 
     /**
@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.filament;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps track of the filament resources that are alive, to help find leaks.
+ *
+ * <p>When enabled, every resource created through a <code>Builder</code> or an {@link Engine}
+ * <code>create</code> method is recorded until it is destroyed with the matching
+ * {@link Engine} <code>destroy</code> method. The tracker keeps live counts and estimated
+ * memory footprints per resource type, and optionally the stack trace of the creation of each
+ * resource. Byte counts are estimates derived from the resource's description (dimensions,
+ * format, vertex layout, ...), they don't account for driver overhead and are 0 for resource
+ * types whose size is unknown.</p>
+ *
+ * <p>Tracking is disabled by default, in which case its overhead is a single branch per
+ * creation and destruction. Enabling it only tracks resources created afterwards. When
+ * enabled, {@link Engine#destroy} reports the resources that it still owns as a warning.</p>
+ *
+ * <p>The tracker is shared by all the {@link Engine} instances of the process, and records the
+ * engine that owns each resource. When an {@link Engine} is destroyed, the resources it still
+ * owns are reported and forgotten. A {@link MaterialInstance} is owned by the engine of its
+ * {@link Material}; if the material itself is not tracked, for instance because it was created
+ * before tracking was enabled, the instance has no owner and is only forgotten when destroyed or
+ * when tracking is disabled.</p>
+ *
+ * <pre>
+ * ResourceTracker.setEnabled(true);
+ * ...
+ * Log.d(TAG, "live textures: " + ResourceTracker.getLiveCount(Texture.class));
+ * Log.d(TAG, ResourceTracker.getReport());
+ * </pre>
+ */
+public final class ResourceTracker {
+    private static volatile boolean sEnabled;
+    private static volatile boolean sStackTracesEnabled;
+
+    // all the state below is guarded by sLock
+    private static final Object sLock = new Object();
+    @NonNull private static final IdentityHashMap<Object, Record> sRecords = new IdentityHashMap<>();
+    @NonNull private static final HashMap<Class<?>, long[]> sTotals = new HashMap<>();
+
+    // live count and byte count of a resource type
+    private static final int TOTAL_COUNT = 0;
+    private static final int TOTAL_BYTES = 1;
+
+    private static class Record {
+        @Nullable final Engine engine;
+        final long byteCount;
+        @Nullable final Throwable creation;
+
+        Record(@Nullable Engine engine, long byteCount, @Nullable Throwable creation) {
+            this.engine = engine;
+            this.byteCount = byteCount;
+            this.creation = creation;
+        }
+    }
+
+    private ResourceTracker() {
+    }
+
+    /**
+     * Enables or disables tracking. Disabling tracking forgets all the tracked resources.
+     *
+     * @param enabled true to track resources created from now on
+     */
+    public static void setEnabled(boolean enabled) {
+        synchronized (sLock) {
+            sEnabled = enabled;
+            if (!enabled) {
+                sRecords.clear();
+                sTotals.clear();
+            }
+        }
+    }
+
+    /**
+     * @return true if tracking is enabled
+     */
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Enables or disables the capture of a stack trace for each resource created while tracking
+     * is enabled. Stack traces show where leaked resources were created, but make creation
+     * significantly more expensive. Disabled by default.
+     *
+     * @param enabled true to capture stack traces
+     */
+    public static void setStackTracesEnabled(boolean enabled) {
+        sStackTracesEnabled = enabled;
+    }
+
+    /**
+     * @return true if stack traces are captured
+     */
+    public static boolean isStackTracesEnabled() {
+        return sStackTracesEnabled;
+    }
+
+    /**
+     * @param type a resource type, for instance <code>Texture.class</code>
+     * @return the number of live resources of the given type
+     */
+    public static int getLiveCount(@NonNull Class<?> type) {
+        synchronized (sLock) {
+            long[] totals = sTotals.get(type);
+            return totals != null ? (int) totals[TOTAL_COUNT] : 0;
+        }
+    }
+
+    /**
+     * @param type a resource type, for instance <code>Texture.class</code>
+     * @return the estimated number of bytes used by the live resources of the given type
+     */
+    public static long getLiveByteCount(@NonNull Class<?> type) {
+        synchronized (sLock) {
+            long[] totals = sTotals.get(type);
+            return totals != null ? totals[TOTAL_BYTES] : 0;
+        }
+    }
+
+    /**
+     * @return the number of live resources of all types
+     */
+    public static int getLiveCount() {
+        synchronized (sLock) {
+            return sRecords.size();
+        }
+    }
+
+    /**
+     * @return the estimated number of bytes used by the live resources of all types
+     */
+    public static long getLiveByteCount() {
+        synchronized (sLock) {
+            long byteCount = 0;
+            for (long[] totals : sTotals.values()) {
+                byteCount += totals[TOTAL_BYTES];
+            }
+            return byteCount;
+        }
+    }
+
+    /**
+     * Describes the live resources: counts and byte estimates per type, followed by the
+     * creation stack trace of each resource when available.
+     *
+     * @return a human-readable report
+     */
+    @NonNull
+    public static String getReport() {
+        synchronized (sLock) {
+            return getReport(sRecords);
+        }
+    }
+
+    static void onCreated(@NonNull Engine engine, @NonNull Object resource) {
+        if (sEnabled) {
+            track(engine, resource, estimateByteCount(resource));
+        }
+    }
+
+    static void onCreated(@NonNull MaterialInstance instance) {
+        if (sEnabled) {
+            Engine engine;
+            synchronized (sLock) {
+                Record material = sRecords.get(instance.getMaterial());
+                engine = material != null ? material.engine : null;
+            }
+            track(engine, instance, 0);
+        }
+    }
+
+    static void onDestroyed(@NonNull Object resource) {
+        if (sEnabled) {
+            untrack(resource);
+        }
+    }
+
+    // reports and forgets the resources still owned by an Engine being destroyed
+    static void onEngineDestroyed(@NonNull Engine engine) {
+        if (!sEnabled) {
+            return;
+        }
+        String report = null;
+        synchronized (sLock) {
+            IdentityHashMap<Object, Record> survivors = new IdentityHashMap<>();
+            for (Map.Entry<Object, Record> entry : sRecords.entrySet()) {
+                if (entry.getValue().engine == engine) {
+                    survivors.put(entry.getKey(), entry.getValue());
+                }
+            }
+            if (!survivors.isEmpty()) {
+                report = getReport(survivors);
+                for (Object resource : survivors.keySet()) {
+                    untrack(resource);
+                }
+            }
+        }
+        if (report != null) {
+            Platform.get().warn(report);
+        }
+    }
+
+    @NonNull
+    private static String getReport(@NonNull IdentityHashMap<Object, Record> records) {
+        HashMap<Class<?>, long[]> totals = new HashMap<>();
+        long byteCount = 0;
+        for (Map.Entry<Object, Record> entry : records.entrySet()) {
+            long[] typeTotals = totals.get(entry.getKey().getClass());
+            if (typeTotals == null) {
+                typeTotals = new long[2];
+                totals.put(entry.getKey().getClass(), typeTotals);
+            }
+            typeTotals[TOTAL_COUNT]++;
+            typeTotals[TOTAL_BYTES] += entry.getValue().byteCount;
+            byteCount += entry.getValue().byteCount;
+        }
+
+        StringBuilder report = new StringBuilder();
+        report.append("Filament live resources: ").append(records.size())
+                .append(" (~").append(byteCount).append(" bytes)\n");
+
+        List<Class<?>> types = new ArrayList<>(totals.keySet());
+        Collections.sort(types, new Comparator<Class<?>>() {
+            @Override
+            public int compare(Class<?> a, Class<?> b) {
+                return a.getSimpleName().compareTo(b.getSimpleName());
+            }
+        });
+        for (Class<?> type : types) {
+            long[] typeTotals = totals.get(type);
+            report.append("  ").append(type.getSimpleName()).append(": ")
+                    .append(typeTotals[TOTAL_COUNT]).append(" (~")
+                    .append(typeTotals[TOTAL_BYTES]).append(" bytes)\n");
+        }
+
+        for (Map.Entry<Object, Record> entry : records.entrySet()) {
+            Throwable creation = entry.getValue().creation;
+            if (creation == null) continue;
+            Object resource = entry.getKey();
+            report.append(resource.getClass().getSimpleName()).append('@')
+                    .append(Integer.toHexString(System.identityHashCode(resource)))
+                    .append(" created at:\n");
+            for (StackTraceElement element : creation.getStackTrace()) {
+                if (element.getClassName().equals(ResourceTracker.class.getName())) continue;
+                report.append("    at ").append(element).append('\n');
+            }
+        }
+        return report.toString();
+    }
+
+    private static void track(@Nullable Engine engine, @NonNull Object resource,
+            long byteCount) {
+        Throwable creation = sStackTracesEnabled ? new Throwable() : null;
+        synchronized (sLock) {
+            if (!sEnabled || sRecords.containsKey(resource)) {
+                return;
+            }
+            sRecords.put(resource, new Record(engine, byteCount, creation));
+            long[] totals = sTotals.get(resource.getClass());
+            if (totals == null) {
+                totals = new long[2];
+                sTotals.put(resource.getClass(), totals);
+            }
+            totals[TOTAL_COUNT]++;
+            totals[TOTAL_BYTES] += byteCount;
+        }
+    }
+
+    private static void untrack(@NonNull Object resource) {
+        synchronized (sLock) {
+            Record record = sRecords.remove(resource);
+            if (record == null) {
+                return;
+            }
+            long[] totals = sTotals.get(resource.getClass());
+            totals[TOTAL_COUNT]--;
+            totals[TOTAL_BYTES] -= record.byteCount;
+            if (totals[TOTAL_COUNT] == 0) {
+                sTotals.remove(resource.getClass());
+            }
+        }
+    }
+
+    private static long estimateByteCount(@NonNull Object resource) {
+        if (resource instanceof Texture) {
+            return ((Texture) resource).estimateByteCount();
+        }
+        if (resource instanceof VertexBuffer) {
+            return ((VertexBuffer) resource).mByteCount;
+        }
+        if (resource instanceof IndexBuffer) {
+            return ((IndexBuffer) resource).mByteCount;
+        }
+        if (resource instanceof Material) {
+            return Math.max(0, ((Material) resource).mByteCount);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.filament;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Tracks the set of entities that belong to a {@link Scene} and updates it by difference.
+ *
+ * <p>Given the complete list of entities that should be in the scene, {@link #setEntities}
+ * computes which entities must be added and which must be removed, and applies these changes
+ * with at most one call to {@link Scene#removeEntities} and one call to
+ * {@link Scene#addEntities}. This is useful when the membership of a scene is recomputed
+ * often, for instance when streaming chunks of a world in and out as the camera moves.</p>
+ *
+ * <p>The <code>SceneMembershipSet</code> assumes it is the only one adding entities to or
+ * removing entities from its {@link Scene}.</p>
+ *
+ * <pre>
+ * SceneMembershipSet members = new SceneMembershipSet(scene);
+ * ...
+ * // every time the set of visible chunks changes
+ * members.setEntities(entitiesOfVisibleChunks);
+ * </pre>
+ *
+ * @see Scene
+ */
+public class SceneMembershipSet {
+    private static final int[] EMPTY = new int[0];
+
+    @NonNull private final Scene mScene;
+
+    @NonNull private IntHashSet mMembers = new IntHashSet();
+    @NonNull private IntHashSet mDesired = new IntHashSet();
+    @NonNull private int[] mScratch = new int[16];
+    // the Scene JNI takes whole arrays, this one is reused as long as the change count is stable
+    @NonNull private int[] mChanges = EMPTY;
+
+    private int mLastAddedCount;
+    private int mLastRemovedCount;
+    private long mTotalAddedCount;
+    private long mTotalRemovedCount;
+
+    /**
+     * Creates a <code>SceneMembershipSet</code> for the given {@link Scene}, initially empty.
+     *
+     * @param scene the {@link Scene} whose entities are managed by this set
+     */
+    public SceneMembershipSet(@NonNull Scene scene) {
+        mScene = scene;
+    }
+
+    /**
+     * @return the {@link Scene} managed by this set
+     */
+    @NonNull
+    public Scene getScene() {
+        return mScene;
+    }
+
+    /**
+     * Makes the {@link Scene} contain exactly the given entities. Entities already in the scene
+     * are left untouched, the others are added, and entities that are not listed are removed.
+     *
+     * @param desired the entities the scene should contain. Duplicates and the null entity
+     *                (<code>0</code>) are ignored.
+     */
+    public void setEntities(@Entity @NonNull int[] desired) {
+        IntHashSet next = mDesired;
+        next.clear();
+        for (int entity : desired) {
+            if (entity != 0) next.add(entity);
+        }
+
+        int removedCount = 0;
+        int[] keys = mMembers.mKeys;
+        for (int entity : keys) {
+            if (entity != 0 && !next.contains(entity)) {
+                mScratch = append(mScratch, removedCount++, entity);
+            }
+        }
+        if (removedCount > 0) {
+            mScene.removeEntities(changes(removedCount));
+        }
+
+        int addedCount = 0;
+        keys = next.mKeys;
+        for (int entity : keys) {
+            if (entity != 0 && !mMembers.contains(entity)) {
+                mScratch = append(mScratch, addedCount++, entity);
+            }
+        }
+        if (addedCount > 0) {
+            mScene.addEntities(changes(addedCount));
+        }
+
+        mDesired = mMembers;
+        mMembers = next;
+        mLastAddedCount = addedCount;
+        mLastRemovedCount = removedCount;
+        mTotalAddedCount += addedCount;
+        mTotalRemovedCount += removedCount;
+    }
+
+    /**
+     * Removes all the entities tracked by this set from the {@link Scene}.
+     */
+    public void clear() {
+        setEntities(EMPTY);
+    }
+
+    /**
+     * @param entity an {@link Entity}
+     * @return true if <code>entity</code> is currently in the {@link Scene}
+     */
+    public boolean contains(@Entity int entity) {
+        return entity != 0 && mMembers.contains(entity);
+    }
+
+    /**
+     * @return the number of entities currently in the {@link Scene}
+     */
+    public int size() {
+        return mMembers.mSize;
+    }
+
+    /**
+     * @return the number of entities added to the {@link Scene} by the last call to
+     * {@link #setEntities}
+     */
+    public int getLastAddedCount() {
+        return mLastAddedCount;
+    }
+
+    /**
+     * @return the number of entities removed from the {@link Scene} by the last call to
+     * {@link #setEntities}
+     */
+    public int getLastRemovedCount() {
+        return mLastRemovedCount;
+    }
+
+    /**
+     * @return the total number of entities added to the {@link Scene} by this set
+     */
+    public long getTotalAddedCount() {
+        return mTotalAddedCount;
+    }
+
+    /**
+     * @return the total number of entities removed from the {@link Scene} by this set
+     */
+    public long getTotalRemovedCount() {
+        return mTotalRemovedCount;
+    }
+
+    // returns the first count entries of mScratch in an array of exactly count entries
+    @NonNull
+    private int[] changes(int count) {
+        if (mChanges.length != count) {
+            mChanges = new int[count];
+        }
+        System.arraycopy(mScratch, 0, mChanges, 0, count);
+        return mChanges;
+    }
+
+    @NonNull
+    private static int[] append(@NonNull int[] array, int index, int value) {
+        if (index == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+        }
+        array[index] = value;
+        return array;
+    }
+
+    /**
+     * Open-addressing set of non-zero ints with linear probing. Entity 0 is the null entity,
+     * which lets us use 0 to mark empty slots.
+     */
+    private static final class IntHashSet {
+        @NonNull int[] mKeys = new int[32];
+        int mSize;
+
+        void clear() {
+            if (mSize > 0) {
+                Arrays.fill(mKeys, 0);
+                mSize = 0;
+            }
+        }
+
+        boolean contains(int key) {
+            final int[] keys = mKeys;
+            final int mask = keys.length - 1;
+            for (int i = EntityInstanceCache.mix(key) & mask; ; i = (i + 1) & mask) {
+                int k = keys[i];
+                if (k == key) return true;
+                if (k == 0) return false;
+            }
+        }
+
+        void add(int key) {
+            // keep the load factor under 1/2
+            if ((mSize + 1) * 2 > mKeys.length) {
+                rehash(mKeys.length * 2);
+            }
+            final int[] keys = mKeys;
+            final int mask = keys.length - 1;
+            for (int i = EntityInstanceCache.mix(key) & mask; ; i = (i + 1) & mask) {
+                int k = keys[i];
+                if (k == key) return;
+                if (k == 0) {
+                    keys[i] = key;
+                    mSize++;
+                    return;
+                }
+            }
+        }
+
+        private void rehash(int capacity) {
+            int[] old = mKeys;
+            mKeys = new int[capacity];
+            mSize = 0;
+            for (int key : old) {
+                if (key != 0) add(key);
+            }
+        }
+    }
+}
@@ -29,15 +29,19 @@ public class SkinningBuffer {
         mNativeObject = nativeSkinningBuffer;
     }
 
-    public static class Builder {
-        @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"})
-        // Keep to finalize native resources
-        private final SkinningBuffer.Builder.BuilderFinalizer mFinalizer;
-        private final long mNativeBuilder;
+    public static class Builder implements AutoCloseable {
+        private static final NativeReaper.Destructor sBuilderDestructor =
+                new NativeReaper.Destructor() {
+                    @Override
+                    public void destroy(long nativeObject) { nDestroyBuilder(nativeObject); }
+                };
+
+        private final NativeReaper.Cleanable mCleanable;
+        private long mNativeBuilder;
 
         public Builder() {
             mNativeBuilder = nCreateBuilder();
-            mFinalizer = new SkinningBuffer.Builder.BuilderFinalizer(mNativeBuilder);
+            mCleanable = NativeReaper.register(this, mNativeBuilder, sBuilderDestructor);
         }
 
         /**
@@ -84,28 +88,25 @@ public class SkinningBuffer {
          */
         @NonNull
         public SkinningBuffer build(@NonNull Engine engine) {
+            if (mNativeBuilder == 0) {
+                throw new IllegalStateException("Calling method on closed Builder");
+            }
             long nativeSkinningBuffer = nBuilderBuild(mNativeBuilder, engine.getNativeObject());
             if (nativeSkinningBuffer == 0)
                 throw new IllegalStateException("Couldn't create SkinningBuffer");
-            return new SkinningBuffer(nativeSkinningBuffer);
+            SkinningBuffer skinningBuffer = new SkinningBuffer(nativeSkinningBuffer);
+            ResourceTracker.onCreated(engine, skinningBuffer);
+            return skinningBuffer;
         }
 
-        private static class BuilderFinalizer {
-            private final long mNativeObject;
-
-            BuilderFinalizer(long nativeObject) {
-                mNativeObject = nativeObject;
-            }
-
-            @Override
-            public void finalize() {
-                try {
-                    super.finalize();
-                } catch (Throwable t) { // Ignore
-                } finally {
-                    nDestroyBuilder(mNativeObject);
-                }
-            }
+        /**
+         * Frees the native builder now rather than when this <code>Builder</code> becomes
+         * unreachable. The <code>Builder</code> must not be used after this call.
+         */
+        @Override
+        public void close() {
+            mCleanable.clean();
+            mNativeBuilder = 0;
         }
     }
 
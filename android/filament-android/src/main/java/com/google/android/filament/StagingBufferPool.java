@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.filament;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * A pool of direct {@link ByteBuffer}s used to stage data uploaded to the GPU.
+ *
+ * <p>Uploads such as {@link VertexBuffer#setBufferAt}, {@link IndexBuffer#setBuffer},
+ * {@link BufferObject#setBuffer} and {@link Texture#setImage} read their source buffer
+ * asynchronously, so the buffer must stay untouched until the upload's callback runs. Rather
+ * than allocating a new direct buffer for each upload, buffers are acquired from the pool and
+ * handed back to it by the upload's callback:</p>
+ *
+ * <pre>
+ * ByteBuffer staging = pool.copy(vertices);
+ * vertexBuffer.setBufferAt(engine, 0, staging, 0, 0,
+ *         pool.getHandler(), pool.getReleaseCallback(staging));
+ * </pre>
+ *
+ * <p>Buffers are grouped in power-of-two size classes. Requests larger than the largest class
+ * are allocated on demand and not pooled. Released buffers are kept for reuse as long as the
+ * pool holds less than its capacity. All methods are thread-safe.</p>
+ */
+public class StagingBufferPool {
+    private static final int MIN_SIZE_CLASS_SHIFT = 8;
+    private static final int MAX_SIZE_CLASS_SHIFT = 26;
+
+    /** Default number of bytes kept by the pool for reuse. */
+    public static final int DEFAULT_CAPACITY = 16 * 1024 * 1024;
+
+    private final int mCapacity;
+
+    // all the state below is guarded by mLock
+    private final Object mLock = new Object();
+    @NonNull private final ArrayList<ArrayDeque<ByteBuffer>> mFreeLists;
+    @NonNull private final IdentityHashMap<ByteBuffer, Boolean> mInFlight = new IdentityHashMap<>();
+    private long mPooledByteCount;
+    private long mInFlightByteCount;
+    private long mHitCount;
+    private long mMissCount;
+
+    /**
+     * Creates a pool that keeps up to {@link #DEFAULT_CAPACITY} bytes for reuse.
+     */
+    public StagingBufferPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param capacity maximum number of bytes kept by the pool for reuse. Buffers released
+     *                 while the pool is full are left to the garbage collector.
+     */
+    public StagingBufferPool(@IntRange(from = 0) int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        mCapacity = capacity;
+        int sizeClassCount = MAX_SIZE_CLASS_SHIFT - MIN_SIZE_CLASS_SHIFT + 1;
+        mFreeLists = new ArrayList<>(sizeClassCount);
+        for (int i = 0; i < sizeClassCount; i++) {
+            mFreeLists.add(new ArrayDeque<ByteBuffer>());
+        }
+    }
+
+    /**
+     * Acquires a direct buffer of at least <code>byteCount</code> bytes, in native byte order,
+     * with its position set to 0 and its limit set to <code>byteCount</code>.
+     *
+     * <p>The buffer must be given back with {@link #release}, typically from the callback
+     * returned by {@link #getReleaseCallback}.</p>
+     *
+     * @param byteCount size of the buffer in bytes
+     * @return a direct buffer owned by the caller until it is released
+     */
+    @NonNull
+    public ByteBuffer acquire(@IntRange(from = 0) int byteCount) {
+        if (byteCount < 0) {
+            throw new IllegalArgumentException("byteCount must be positive: " + byteCount);
+        }
+        int sizeClass = getSizeClass(byteCount);
+        ByteBuffer buffer = null;
+        synchronized (mLock) {
+            if (sizeClass < mFreeLists.size()) {
+                buffer = mFreeLists.get(sizeClass).pollFirst();
+            }
+            if (buffer != null) {
+                mHitCount++;
+                mPooledByteCount -= buffer.capacity();
+            } else {
+                mMissCount++;
+            }
+        }
+        if (buffer == null) {
+            int capacity = sizeClass < mFreeLists.size() ?
+                    1 << (sizeClass + MIN_SIZE_CLASS_SHIFT) : byteCount;
+            buffer = ByteBuffer.allocateDirect(capacity);
+            buffer.order(ByteOrder.nativeOrder());
+        }
+        buffer.clear();
+        buffer.limit(byteCount);
+        synchronized (mLock) {
+            mInFlight.put(buffer, Boolean.TRUE);
+            mInFlightByteCount += buffer.capacity();
+        }
+        return buffer;
+    }
+
+    /**
+     * Acquires a buffer holding a copy of the remaining elements of <code>data</code>, ready to
+     * be uploaded: its position is 0 and its limit is the size of the copy in bytes. The position
+     * of <code>data</code> is left unchanged.
+     *
+     * @param data buffer of any type to copy, for instance a {@link java.nio.FloatBuffer}
+     * @return a direct buffer owned by the caller until it is released
+     */
+    @NonNull
+    public ByteBuffer copy(@NonNull Buffer data) {
+        ByteBuffer buffer = acquire(data.remaining() << NioUtils.getSizeShift(data));
+        NioUtils.copy(data, buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Gives a buffer back to the pool. The buffer must not be used after this call.
+     *
+     * @param buffer a buffer returned by {@link #acquire} or {@link #copy}
+     * @exception IllegalArgumentException if the buffer was not acquired from this pool or was
+     *            already released
+     */
+    public void release(@NonNull ByteBuffer buffer) {
+        int capacity = buffer.capacity();
+        synchronized (mLock) {
+            if (mInFlight.remove(buffer) == null) {
+                throw new IllegalArgumentException("Buffer not acquired from this pool");
+            }
+            mInFlightByteCount -= capacity;
+            int sizeClass = getSizeClass(capacity);
+            if (sizeClass < mFreeLists.size() && mPooledByteCount + capacity <= mCapacity) {
+                mFreeLists.get(sizeClass).addFirst(buffer);
+                mPooledByteCount += capacity;
+            }
+        }
+    }
+
+    /**
+     * Returns a callback that releases <code>buffer</code>, to pass along with
+     * {@link #getHandler} to the upload that reads <code>buffer</code>.
+     *
+     * @param buffer a buffer returned by {@link #acquire} or {@link #copy}
+     * @return a callback calling {@link #release} with <code>buffer</code>
+     */
+    @NonNull
+    public Runnable getReleaseCallback(@NonNull final ByteBuffer buffer) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                release(buffer);
+            }
+        };
+    }
+
+    /**
+     * @return an {@link Executor} suitable as the handler of the callbacks returned by
+     *         {@link #getReleaseCallback}, it runs them on the thread that invokes them
+     */
+    @NonNull
+    public Executor getHandler() {
+        return DirectExecutor.INSTANCE;
+    }
+
+    /**
+     * Frees all the buffers kept for reuse. Buffers in flight are not affected.
+     */
+    public void trim() {
+        synchronized (mLock) {
+            for (ArrayDeque<ByteBuffer> freeList : mFreeLists) {
+                freeList.clear();
+            }
+            mPooledByteCount = 0;
+        }
+    }
+
+    /**
+     * @return the number of bytes currently acquired and not yet released
+     */
+    public long getBytesInFlight() {
+        synchronized (mLock) {
+            return mInFlightByteCount;
+        }
+    }
+
+    /**
+     * @return the number of bytes kept by the pool for reuse
+     */
+    public long getPooledByteCount() {
+        synchronized (mLock) {
+            return mPooledByteCount;
+        }
+    }
+
+    /**
+     * @return the number of acquisitions served by a pooled buffer
+     */
+    public long getHitCount() {
+        synchronized (mLock) {
+            return mHitCount;
+        }
+    }
+
+    /**
+     * @return the number of acquisitions that allocated a new buffer
+     */
+    public long getMissCount() {
+        synchronized (mLock) {
+            return mMissCount;
+        }
+    }
+
+    /**
+     * @return the fraction of acquisitions served by a pooled buffer, between 0 and 1
+     */
+    public float getHitRate() {
+        synchronized (mLock) {
+            long total = mHitCount + mMissCount;
+            return total == 0 ? 0.0f : (float) mHitCount / total;
+        }
+    }
+
+    // index of the smallest size class holding byteCount bytes, may be past the last class
+    private static int getSizeClass(int byteCount) {
+        if (byteCount <= 1 << MIN_SIZE_CLASS_SHIFT) {
+            return 0;
+        }
+        int shift = 32 - Integer.numberOfLeadingZeros(byteCount - 1);
+        return shift - MIN_SIZE_CLASS_SHIFT;
+    }
+}
@@ -76,6 +76,13 @@ public class Texture {
 
     private long mNativeObject;
 
+    // description recorded by the Builder to estimate the memory used by this texture, the
+    // level byte counts are null when unknown, e.g. for imported textures or when memory stats
+    // are disabled
+    @Nullable long[] mLevelByteCounts;
+    @NonNull InternalFormat mFormat = InternalFormat.RGBA8;
+    int mUsage = Usage.DEFAULT;
+
     public Texture(long nativeTexture) {
         mNativeObject = nativeTexture;
     }
@@ -643,18 +650,32 @@ public class Texture {
     /**
      * Use <code>Builder</code> to construct a <code>Texture</code> object instance.
      */
-    public static class Builder {
-        @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"})
-        // Keep to finalize native resources
-        private final BuilderFinalizer mFinalizer;
-        private final long mNativeBuilder;
+    public static class Builder implements AutoCloseable {
+        private static final NativeReaper.Destructor sBuilderDestructor =
+                new NativeReaper.Destructor() {
+                    @Override
+                    public void destroy(long nativeObject) { nDestroyBuilder(nativeObject); }
+                };
+
+        private final NativeReaper.Cleanable mCleanable;
+        private long mNativeBuilder;
+
+        // texture description, used to estimate the memory used by the texture
+        private int mWidth = 1;
+        private int mHeight = 1;
+        private int mDepth = 1;
+        private int mLevels = 1;
+        @NonNull private Sampler mSampler = Sampler.SAMPLER_2D;
+        @NonNull private InternalFormat mFormat = InternalFormat.RGBA8;
+        private int mUsage = Usage.DEFAULT;
+        private boolean mImported;
 
         /**
          * Use <code>Builder</code> to construct a <code>Texture</code> object instance.
          */
         public Builder() {
             mNativeBuilder = nCreateBuilder();
-            mFinalizer = new BuilderFinalizer(mNativeBuilder);
+            mCleanable = NativeReaper.register(this, mNativeBuilder, sBuilderDestructor);
         }
 
         /**
@@ -665,6 +686,7 @@ public class Texture {
         @NonNull
         public Builder width(@IntRange(from = 1) int width) {
             nBuilderWidth(mNativeBuilder, width);
+            mWidth = width;
             return this;
         }
 
@@ -676,6 +698,7 @@ public class Texture {
         @NonNull
         public Builder height(@IntRange(from = 1) int height) {
             nBuilderHeight(mNativeBuilder, height);
+            mHeight = height;
             return this;
         }
 
@@ -691,6 +714,7 @@ public class Texture {
         @NonNull
         public Builder depth(@IntRange(from = 1) int depth) {
             nBuilderDepth(mNativeBuilder, depth);
+            mDepth = depth;
             return this;
         }
 
@@ -702,6 +726,7 @@ public class Texture {
         @NonNull
         public Builder levels(@IntRange(from = 1) int levels) {
             nBuilderLevels(mNativeBuilder, levels);
+            mLevels = levels;
             return this;
         }
 
@@ -713,6 +738,7 @@ public class Texture {
         @NonNull
         public Builder sampler(@NonNull Sampler target) {
             nBuilderSampler(mNativeBuilder, target.ordinal());
+            mSampler = target;
             return this;
         }
 
@@ -727,6 +753,7 @@ public class Texture {
         @NonNull
         public Builder format(@NonNull InternalFormat format) {
             nBuilderFormat(mNativeBuilder, format.ordinal());
+            mFormat = format;
             return this;
         }
 
@@ -738,6 +765,7 @@ public class Texture {
         @NonNull
         public Builder usage(int flags) {
             nBuilderUsage(mNativeBuilder, flags);
+            mUsage = flags;
             return this;
         }
 
@@ -773,6 +801,7 @@ public class Texture {
         @NonNull
         public Builder importTexture(long id) {
             nBuilderImportTexture(mNativeBuilder, id);
+            mImported = true;
             return this;
         }
 
@@ -785,27 +814,47 @@ public class Texture {
          */
         @NonNull
         public Texture build(@NonNull Engine engine) {
+            if (mNativeBuilder == 0) {
+                throw new IllegalStateException("Calling method on closed Builder");
+            }
             long nativeTexture = nBuilderBuild(mNativeBuilder, engine.getNativeObject());
             if (nativeTexture == 0) throw new IllegalStateException("Couldn't create Texture");
-            return new Texture(nativeTexture);
-        }
-
-        private static class BuilderFinalizer {
-            private final long mNativeObject;
-
-            BuilderFinalizer(long nativeObject) {
-                mNativeObject = nativeObject;
+            Texture texture = new Texture(nativeTexture);
+            texture.mFormat = mFormat;
+            texture.mUsage = mUsage;
+            if (!mImported && engine.isMemoryStatsEnabled()) {
+                texture.mLevelByteCounts = estimateLevelByteCounts();
             }
+            ResourceTracker.onCreated(engine, texture);
+            engine.onCreated(texture);
+            return texture;
+        }
 
-            @Override
-            public void finalize() {
-                try {
-                    super.finalize();
-                } catch (Throwable t) { // Ignore
-                } finally {
-                    nDestroyBuilder(mNativeObject);
+        @NonNull
+        private long[] estimateLevelByteCounts() {
+            // the level count is clamped by the builder to the size of the full mip chain
+            int maxLevels = 32 - Integer.numberOfLeadingZeros(Math.max(mWidth, mHeight));
+            long[] levelByteCounts = new long[Math.max(1, Math.min(mLevels, maxLevels))];
+            for (int level = 0; level < levelByteCounts.length; level++) {
+                int depth = mSampler == Sampler.SAMPLER_3D ? Math.max(1, mDepth >> level) : mDepth;
+                long byteCount = estimateByteCount(mFormat,
+                        Math.max(1, mWidth >> level), Math.max(1, mHeight >> level)) * depth;
+                if (mSampler == Sampler.SAMPLER_CUBEMAP) {
+                    byteCount *= 6;
                 }
+                levelByteCounts[level] = byteCount;
             }
+            return levelByteCounts;
+        }
+
+        /**
+         * Frees the native builder now rather than when this <code>Builder</code> becomes
+         * unreachable. The <code>Builder</code> must not be used after this call.
+         */
+        @Override
+        public void close() {
+            mCleanable.clean();
+            mNativeBuilder = 0;
         }
     }
 
@@ -881,6 +930,170 @@ public class Texture {
         return sInternalFormatValues[nGetInternalFormat(getNativeObject())];
     }
 
+    /**
+     * Estimates the memory used by this texture from its dimensions, format and number of levels.
+     * Drivers may pad or align textures, so the actual footprint can be larger.
+     */
+    long estimateByteCount() {
+        if (mLevelByteCounts != null) {
+            long byteCount = 0;
+            for (long levelByteCount : mLevelByteCounts) {
+                byteCount += levelByteCount;
+            }
+            return byteCount;
+        }
+        long byteCount = estimateByteCount(getFormat(), getWidth(0), getHeight(0)) * getDepth(0);
+        if (getTarget() == Sampler.SAMPLER_CUBEMAP) {
+            byteCount *= 6;
+        }
+        if (getLevels() > 1) {
+            // a mip chain adds up to a third of the base level
+            byteCount += byteCount / 3;
+        }
+        return byteCount;
+    }
+
+    /**
+     * @return the size in bytes of one 2D image of the given format and dimensions
+     */
+    static long estimateByteCount(@NonNull InternalFormat format, int width, int height) {
+        final long texels = (long) width * height;
+        switch (format) {
+            case R8: case R8_SNORM: case R8UI: case R8I:
+            case STENCIL8:
+                return texels;
+            case R16F: case R16UI: case R16I:
+            case RG8: case RG8_SNORM: case RG8UI: case RG8I:
+            case RGB565: case RGB5_A1: case RGBA4:
+            case DEPTH16:
+                return texels * 2;
+            case RGB8: case SRGB8: case RGB8_SNORM: case RGB8UI: case RGB8I:
+                return texels * 3;
+            case R32F: case R32UI: case R32I:
+            case RG16F: case RG16UI: case RG16I:
+            case RGB9_E5: case R11F_G11F_B10F:
+            case RGBA8: case SRGB8_A8: case RGBA8_SNORM: case RGBA8UI: case RGBA8I:
+            case RGB10_A2:
+            // depth is padded to 32 bits by most drivers
+            case DEPTH24: case DEPTH32F: case DEPTH24_STENCIL8:
+                return texels * 4;
+            case RGB16F: case RGB16UI: case RGB16I:
+                return texels * 6;
+            case RG32F: case RG32UI: case RG32I:
+            case RGBA16F: case RGBA16UI: case RGBA16I:
+            // 32-bit depth and 8-bit stencil, padded to 64 bits by most drivers
+            case DEPTH32F_STENCIL8:
+                return texels * 8;
+            case RGB32F: case RGB32UI: case RGB32I:
+                return texels * 12;
+            case RGBA32F: case RGBA32UI: case RGBA32I:
+                return texels * 16;
+
+            case EAC_R11: case EAC_R11_SIGNED:
+            case ETC2_RGB8: case ETC2_SRGB8: case ETC2_RGB8_A1: case ETC2_SRGB8_A1:
+            case DXT1_RGB: case DXT1_RGBA: case DXT1_SRGB: case DXT1_SRGBA:
+                return getBlockByteCount(width, height, 4, 4, 8);
+            case EAC_RG11: case EAC_RG11_SIGNED:
+            case ETC2_EAC_RGBA8: case ETC2_EAC_SRGBA8:
+            case DXT3_RGBA: case DXT5_RGBA: case DXT3_SRGBA: case DXT5_SRGBA:
+                return getBlockByteCount(width, height, 4, 4, 16);
+
+            // all ASTC blocks are 16 bytes
+            case RGBA_ASTC_4x4: case SRGB8_ALPHA8_ASTC_4x4:
+                return getBlockByteCount(width, height, 4, 4, 16);
+            case RGBA_ASTC_5x4: case SRGB8_ALPHA8_ASTC_5x4:
+                return getBlockByteCount(width, height, 5, 4, 16);
+            case RGBA_ASTC_5x5: case SRGB8_ALPHA8_ASTC_5x5:
+                return getBlockByteCount(width, height, 5, 5, 16);
+            case RGBA_ASTC_6x5: case SRGB8_ALPHA8_ASTC_6x5:
+                return getBlockByteCount(width, height, 6, 5, 16);
+            case RGBA_ASTC_6x6: case SRGB8_ALPHA8_ASTC_6x6:
+                return getBlockByteCount(width, height, 6, 6, 16);
+            case RGBA_ASTC_8x5: case SRGB8_ALPHA8_ASTC_8x5:
+                return getBlockByteCount(width, height, 8, 5, 16);
+            case RGBA_ASTC_8x6: case SRGB8_ALPHA8_ASTC_8x6:
+                return getBlockByteCount(width, height, 8, 6, 16);
+            case RGBA_ASTC_8x8: case SRGB8_ALPHA8_ASTC_8x8:
+                return getBlockByteCount(width, height, 8, 8, 16);
+            case RGBA_ASTC_10x5: case SRGB8_ALPHA8_ASTC_10x5:
+                return getBlockByteCount(width, height, 10, 5, 16);
+            case RGBA_ASTC_10x6: case SRGB8_ALPHA8_ASTC_10x6:
+                return getBlockByteCount(width, height, 10, 6, 16);
+            case RGBA_ASTC_10x8: case SRGB8_ALPHA8_ASTC_10x8:
+                return getBlockByteCount(width, height, 10, 8, 16);
+            case RGBA_ASTC_10x10: case SRGB8_ALPHA8_ASTC_10x10:
+                return getBlockByteCount(width, height, 10, 10, 16);
+            case RGBA_ASTC_12x10: case SRGB8_ALPHA8_ASTC_12x10:
+                return getBlockByteCount(width, height, 12, 10, 16);
+            case RGBA_ASTC_12x12: case SRGB8_ALPHA8_ASTC_12x12:
+                return getBlockByteCount(width, height, 12, 12, 16);
+
+            default:
+                // unused or unknown format, not counted
+                return 0;
+        }
+    }
+
+    // size of an image of a compressed format made of blocks of blockWidth x blockHeight texels
+    private static long getBlockByteCount(int width, int height,
+            int blockWidth, int blockHeight, int blockSize) {
+        return (long) ((width + blockWidth - 1) / blockWidth) *
+                ((height + blockHeight - 1) / blockHeight) * blockSize;
+    }
+
+    /**
+     * @return the size in bytes of an uncompressed pixel of the given format and type
+     * @exception IllegalArgumentException for compressed or unused formats
+     */
+    static int getPixelSize(@NonNull Format format, @NonNull Type type) {
+        switch (type) {
+            case UINT_10F_11F_11F_REV:
+                return 4;
+            case USHORT_565:
+                return 2;
+            case COMPRESSED:
+                throw new IllegalArgumentException("Compressed pixels have no size");
+            default:
+                break;
+        }
+        if (format == Format.DEPTH_STENCIL && type == Type.UINT) {
+            // packed 24-bit depth and 8-bit stencil
+            return 4;
+        }
+        int componentCount;
+        switch (format) {
+            case RG:
+            case RG_INTEGER:
+            case DEPTH_STENCIL:
+                componentCount = 2;
+                break;
+            case RGB:
+            case RGB_INTEGER:
+                componentCount = 3;
+                break;
+            case RGBA:
+            case RGBA_INTEGER:
+                componentCount = 4;
+                break;
+            case UNUSED:
+                throw new IllegalArgumentException("Invalid format " + format);
+            default:
+                componentCount = 1;
+                break;
+        }
+        switch (type) {
+            case UBYTE:
+            case BYTE:
+                return componentCount;
+            case USHORT:
+            case SHORT:
+            case HALF:
+                return componentCount * 2;
+            default:
+                return componentCount * 4;
+        }
+    }
+
     // TODO: add a setImage() version that takes an android Bitmap
 
     /**
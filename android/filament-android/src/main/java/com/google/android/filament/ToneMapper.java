@@ -33,10 +33,16 @@ package com.google.android.filament;
  * You can create custom tone mapping operators by subclassing ToneMapper.
  */
 public class ToneMapper {
+    private static final NativeReaper.Destructor sDestructor = new NativeReaper.Destructor() {
+        @Override
+        public void destroy(long nativeObject) { nDestroyToneMapper(nativeObject); }
+    };
+
     private final long mNativeObject;
 
     private ToneMapper(long nativeObject) {
         mNativeObject = nativeObject;
+        NativeReaper.register(this, nativeObject, sDestructor);
     }
 
     public long getNativeObject() {
@@ -46,15 +52,6 @@ public class ToneMapper {
         return mNativeObject;
     }
 
-    @Override
-    protected void finalize() throws Throwable {
-        try {
-            super.finalize();
-        } finally {
-            nDestroyToneMapper(mNativeObject);
-        }
-    }
-
     /**
      * Linear tone mapping operator that returns the input color but clamped to
      * the 0..1 range. This operator is mostly useful for debugging.
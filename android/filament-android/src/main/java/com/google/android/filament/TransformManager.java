@@ -20,6 +20,10 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.Size;
 
+import java.nio.BufferUnderflowException;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
 /**
  * <code>TransformManager</code> is used to add transform components to entities.
  *
@@ -53,6 +57,17 @@ import androidx.annotation.Size;
  *
  */public class TransformManager {
     private long mNativeObject;
+    @NonNull private final EntityInstanceCache mInstanceCache =
+            new EntityInstanceCache(new EntityInstanceCache.NativeLookup() {
+                @Override
+                public int getInstance(int entity) {
+                    return nGetInstance(mNativeObject, entity);
+                }
+            });
+
+    // scratch storage for the bulk APIs, TransformManager is not thread-safe
+    private final float[] mScratchTransform = new float[16];
+    private final double[] mScratchTransformFp64 = new double[16];
 
     TransformManager(long nativeTransformManager) {
         mNativeObject = nativeTransformManager;
@@ -80,7 +95,50 @@ import androidx.annotation.Size;
      */
     @EntityInstance
     public int getInstance(@Entity int entity) {
-        return nGetInstance(mNativeObject, entity);
+        return mInstanceCache.lookup(entity);
+    }
+
+    /**
+     * Gets the {@link EntityInstance}s of the transform components associated with many entities.
+     *
+     * @param entities an array of {@link Entity}
+     * @param out      receives the {@link EntityInstance} of each entity, 0 for entities without
+     *                 a transform component. Must be at least as long as <code>entities</code>.
+     * @return <code>out</code>, for convenience
+     * @see #getInstance
+     */
+    @EntityInstance
+    @NonNull
+    public int[] instancesOf(@Entity @NonNull int[] entities, @EntityInstance @NonNull int[] out) {
+        return mInstanceCache.fill(entities, out);
+    }
+
+    /**
+     * Enables or disables caching {@link #getInstance} results on the Java side. Disabled by
+     * default. The cache is invalidated when components are created or destroyed through this
+     * manager, its builder, or {@link Engine#destroyEntity}. The cache is also invalidated when
+     * the hierarchy changes through {@link #setParent} or a committed local transform
+     * transaction, since both can reorder the components. Other changes, for instance by
+     * gltfio, require a call to {@link #invalidateInstanceCache}.
+     *
+     * @param enabled true to enable the cache, false to disable and drop it
+     */
+    public void setInstanceCacheEnabled(boolean enabled) {
+        mInstanceCache.setEnabled(enabled);
+    }
+
+    /**
+     * @return true if the {@link #getInstance} cache is enabled
+     */
+    public boolean isInstanceCacheEnabled() {
+        return mInstanceCache.isEnabled();
+    }
+
+    /**
+     * Drops the {@link #getInstance} cache, see {@link #setInstanceCacheEnabled}.
+     */
+    public void invalidateInstanceCache() {
+        mInstanceCache.invalidate();
     }
 
     /**
@@ -123,6 +181,7 @@ import androidx.annotation.Size;
      */
     @EntityInstance
     public int create(@Entity int entity) {
+        invalidateInstanceCache();
         return nCreate(mNativeObject, entity);
     }
 
@@ -140,6 +199,7 @@ import androidx.annotation.Size;
     @EntityInstance
     public int create(@Entity int entity, @EntityInstance int parent,
             @Nullable @Size(min = 16) float[] localTransform) {
+        invalidateInstanceCache();
         return nCreateArray(mNativeObject, entity, parent, localTransform);
     }
 
@@ -157,9 +217,118 @@ import androidx.annotation.Size;
     @EntityInstance
     public int create(@Entity int entity, @EntityInstance int parent,
             @Nullable @Size(min = 16) double[] localTransform) {
+        invalidateInstanceCache();
         return nCreateArrayFp64(mNativeObject, entity, parent, localTransform);
     }
 
+    /**
+     * Creates transform components for a whole hierarchy of entities at once.
+     *
+     * <p>Parents are given as indices into <code>entities</code>, so that no instance lookups are
+     * needed between the creation of a parent and the creation of its children. Entities can be
+     * listed in any order, but listing parents before their children is cheaper.</p>
+     *
+     * <p>None of the entities may already have a transform component.</p>
+     *
+     * @param entities        the entities to create transform components for
+     * @param parentIndices   for each entity, the index in <code>entities</code> of its parent,
+     *                        or -1 if it has no parent
+     * @param localTransforms optional local transforms, 16 values per entity, read from the
+     *                        buffer's current position, which is not modified. When null, the
+     *                        components are initialized with the identity transform.
+     * @return the {@link EntityInstance} of each new component, in the order of
+     *         <code>entities</code>
+     *
+     * @exception ArrayIndexOutOfBoundsException if <code>parentIndices</code> is too small
+     * @exception IllegalArgumentException if a parent index is out of range or refers to the
+     *                                     entity itself
+     * @exception BufferUnderflowException if <code>localTransforms</code> is too small
+     */
+    @EntityInstance
+    @NonNull
+    public int[] create(@Entity @NonNull int[] entities, @NonNull int[] parentIndices,
+            @Nullable FloatBuffer localTransforms) {
+        validateParentIndices(entities.length, parentIndices);
+        if (localTransforms != null && localTransforms.remaining() < entities.length * 16) {
+            throw new BufferUnderflowException();
+        }
+        invalidateInstanceCache();
+        final float[] transform = localTransforms != null ? mScratchTransform : null;
+        final int[] instances = new int[entities.length];
+        int offset = localTransforms != null ? localTransforms.position() : 0;
+        boolean hasForwardParents = false;
+        for (int i = 0; i < entities.length; i++) {
+            if (transform != null) {
+                for (int j = 0; j < 16; j++) {
+                    transform[j] = localTransforms.get(offset + j);
+                }
+                offset += 16;
+            }
+            final int parentIndex = parentIndices[i];
+            final int parent = parentIndex >= 0 && parentIndex < i ? instances[parentIndex] : 0;
+            hasForwardParents |= parentIndex > i;
+            instances[i] = nCreateArray(mNativeObject, entities[i], parent, transform);
+        }
+        if (hasForwardParents) {
+            linkForwardParents(entities, instances, parentIndices);
+        }
+        return instances;
+    }
+
+    /**
+     * Creates transform components for a whole hierarchy of entities at once.
+     *
+     * <p>Parents are given as indices into <code>entities</code>, so that no instance lookups are
+     * needed between the creation of a parent and the creation of its children. Entities can be
+     * listed in any order, but listing parents before their children is cheaper.</p>
+     *
+     * <p>None of the entities may already have a transform component.</p>
+     *
+     * @param entities        the entities to create transform components for
+     * @param parentIndices   for each entity, the index in <code>entities</code> of its parent,
+     *                        or -1 if it has no parent
+     * @param localTransforms optional local transforms, 16 values per entity, read from the
+     *                        buffer's current position, which is not modified. When null, the
+     *                        components are initialized with the identity transform.
+     * @return the {@link EntityInstance} of each new component, in the order of
+     *         <code>entities</code>
+     *
+     * @exception ArrayIndexOutOfBoundsException if <code>parentIndices</code> is too small
+     * @exception IllegalArgumentException if a parent index is out of range or refers to the
+     *                                     entity itself
+     * @exception BufferUnderflowException if <code>localTransforms</code> is too small
+     */
+    @EntityInstance
+    @NonNull
+    public int[] create(@Entity @NonNull int[] entities, @NonNull int[] parentIndices,
+            @Nullable DoubleBuffer localTransforms) {
+        validateParentIndices(entities.length, parentIndices);
+        if (localTransforms != null && localTransforms.remaining() < entities.length * 16) {
+            throw new BufferUnderflowException();
+        }
+        invalidateInstanceCache();
+        final double[] transform = localTransforms != null ? mScratchTransformFp64 : null;
+        final int[] instances = new int[entities.length];
+        int offset = localTransforms != null ? localTransforms.position() : 0;
+        boolean hasForwardParents = false;
+        for (int i = 0; i < entities.length; i++) {
+            if (transform != null) {
+                for (int j = 0; j < 16; j++) {
+                    transform[j] = localTransforms.get(offset + j);
+                }
+                offset += 16;
+            }
+            final int parentIndex = parentIndices[i];
+            final int parent = parentIndex >= 0 && parentIndex < i ? instances[parentIndex] : 0;
+            hasForwardParents |= parentIndex > i;
+            instances[i] = nCreateArrayFp64(mNativeObject, entities[i], parent, transform);
+        }
+        if (hasForwardParents) {
+            linkForwardParents(entities, instances, parentIndices);
+        }
+        return instances;
+    }
+
     /**
      * Destroys this component from the given entity, children are orphaned.
      *
@@ -170,6 +339,7 @@ import androidx.annotation.Size;
      * @see #create
      */
     public void destroy(@Entity int entity) {
+        invalidateInstanceCache();
         nDestroy(mNativeObject, entity);
     }
 
@@ -183,6 +353,7 @@ import androidx.annotation.Size;
      * @see #getInstance
      */
     public void setParent(@EntityInstance int i, @EntityInstance int newParent) {
+        invalidateInstanceCache();
         nSetParent(mNativeObject, i, newParent);
     }
 
@@ -234,6 +405,78 @@ import androidx.annotation.Size;
         nSetTransformFp64(mNativeObject, i, localTransform);
     }
 
+    /**
+     * Sets the local transforms of many transform components at once.
+     * <p>The update is wrapped in a local transform transaction, so the hierarchy is only
+     * resolved once per batch, when the transaction is committed. Any transaction already open
+     * when this method is called is committed as well.</p>
+     *
+     * @param instances       the {@link EntityInstance}s of the transform components to set the
+     *                        local transform to.
+     * @param localTransforms a {@link FloatBuffer} containing <code>instances.length</code>
+     *                        4x4 packed matrices (i.e. 16 floats each matrix and no gap
+     *                        between matrices), starting at the buffer's current position.
+     *                        The buffer's position is not modified.
+     * @exception BufferUnderflowException if <code>localTransforms</code> contains less than
+     *                                     <code>16 * instances.length</code> floats
+     * @see #setTransform(int, float[])
+     * @see #openLocalTransformTransaction
+     */
+    public void setTransforms(@EntityInstance @NonNull int[] instances,
+            @NonNull FloatBuffer localTransforms) {
+        if (localTransforms.remaining() < instances.length * 16) {
+            throw new BufferUnderflowException();
+        }
+        final float[] transform = mScratchTransform;
+        int offset = localTransforms.position();
+        nOpenLocalTransformTransaction(mNativeObject);
+        for (int instance : instances) {
+            for (int j = 0; j < 16; j++) {
+                transform[j] = localTransforms.get(offset + j);
+            }
+            nSetTransform(mNativeObject, instance, transform);
+            offset += 16;
+        }
+        invalidateInstanceCache();
+        nCommitLocalTransformTransaction(mNativeObject);
+    }
+
+    /**
+     * Sets the local transforms of many transform components at once.
+     * <p>The update is wrapped in a local transform transaction, so the hierarchy is only
+     * resolved once per batch, when the transaction is committed. Any transaction already open
+     * when this method is called is committed as well.</p>
+     *
+     * @param instances       the {@link EntityInstance}s of the transform components to set the
+     *                        local transform to.
+     * @param localTransforms a {@link DoubleBuffer} containing <code>instances.length</code>
+     *                        4x4 packed matrices (i.e. 16 doubles each matrix and no gap
+     *                        between matrices), starting at the buffer's current position.
+     *                        The buffer's position is not modified.
+     * @exception BufferUnderflowException if <code>localTransforms</code> contains less than
+     *                                     <code>16 * instances.length</code> doubles
+     * @see #setTransform(int, double[])
+     * @see #openLocalTransformTransaction
+     */
+    public void setTransforms(@EntityInstance @NonNull int[] instances,
+            @NonNull DoubleBuffer localTransforms) {
+        if (localTransforms.remaining() < instances.length * 16) {
+            throw new BufferUnderflowException();
+        }
+        final double[] transform = mScratchTransformFp64;
+        int offset = localTransforms.position();
+        nOpenLocalTransformTransaction(mNativeObject);
+        for (int instance : instances) {
+            for (int j = 0; j < 16; j++) {
+                transform[j] = localTransforms.get(offset + j);
+            }
+            nSetTransformFp64(mNativeObject, instance, transform);
+            offset += 16;
+        }
+        invalidateInstanceCache();
+        nCommitLocalTransformTransaction(mNativeObject);
+    }
+
     /**
      * Returns the local transform of a transform component.
      *
@@ -345,9 +588,60 @@ import androidx.annotation.Size;
      * @see #setTransform
      */
     public void commitLocalTransformTransaction() {
+        invalidateInstanceCache();
         nCommitLocalTransformTransaction(mNativeObject);
     }
 
+    private static void validateParentIndices(int count, @NonNull int[] parentIndices) {
+        if (parentIndices.length < count) {
+            throw new ArrayIndexOutOfBoundsException("Array length must be at least " + count);
+        }
+        boolean hasForwardParents = false;
+        for (int i = 0; i < count; i++) {
+            final int parentIndex = parentIndices[i];
+            if (parentIndex < -1 || parentIndex >= count || parentIndex == i) {
+                throw new IllegalArgumentException(
+                        "Invalid parent index " + parentIndex + " at index " + i);
+            }
+            hasForwardParents |= parentIndex > i;
+        }
+        if (!hasForwardParents) {
+            // parents all come first, there can't be any cycle
+            return;
+        }
+        // 0: not visited, 1: on the current path, 2: known to reach a root
+        final byte[] state = new byte[count];
+        for (int i = 0; i < count; i++) {
+            int j = i;
+            while (j >= 0 && state[j] == 0) {
+                state[j] = 1;
+                j = parentIndices[j];
+            }
+            if (j >= 0 && state[j] == 1) {
+                throw new IllegalArgumentException("Cycle in parent indices at index " + j);
+            }
+            for (j = i; j >= 0 && state[j] == 1; j = parentIndices[j]) {
+                state[j] = 2;
+            }
+        }
+    }
+
+    // parents that were created after their children are attached once all components exist
+    private void linkForwardParents(@NonNull int[] entities, @NonNull int[] instances,
+            @NonNull int[] parentIndices) {
+        for (int i = 0; i < instances.length; i++) {
+            final int parentIndex = parentIndices[i];
+            if (parentIndex > i) {
+                nSetParent(mNativeObject, nGetInstance(mNativeObject, entities[i]),
+                        nGetInstance(mNativeObject, entities[parentIndex]));
+            }
+        }
+        // reparenting can reorder the components
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = nGetInstance(mNativeObject, entities[i]);
+        }
+    }
+
     public long getNativeObject() {
         return mNativeObject;
     }
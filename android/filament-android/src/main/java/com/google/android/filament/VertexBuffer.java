@@ -22,6 +22,7 @@ import androidx.annotation.Nullable;
 
 import java.nio.Buffer;
 import java.nio.BufferOverflowException;
+import java.util.Arrays;
 
 /**
  * Holds a set of buffers that define the geometry of a <code>Renderable</code>.
@@ -53,6 +54,9 @@ import java.nio.BufferOverflowException;
 public class VertexBuffer {
     private long mNativeObject;
 
+    // estimated size in bytes, computed by the Builder
+    long mByteCount;
+
     private VertexBuffer(long nativeVertexBuffer) {
         mNativeObject = nativeVertexBuffer;
     }
@@ -105,14 +109,67 @@ public class VertexBuffer {
         HALF4,
     }
 
-    public static class Builder {
-        @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"}) // Keep to finalize native resources
-        private final BuilderFinalizer mFinalizer;
-        private final long mNativeBuilder;
+    // size in bytes of each AttributeType
+    private static final int[] sAttributeTypeSizes = {
+            1, 2, 3, 4,         // BYTE
+            1, 2, 3, 4,         // UBYTE
+            2, 4, 6, 8,         // SHORT
+            2, 4, 6, 8,         // USHORT
+            4, 4,               // INT, UINT
+            4, 8, 12, 16,       // FLOAT
+            2, 4, 6, 8,         // HALF
+    };
+
+    public static class Builder implements AutoCloseable {
+        private static final NativeReaper.Destructor sBuilderDestructor =
+                new NativeReaper.Destructor() {
+                    @Override
+                    public void destroy(long nativeObject) { nDestroyBuilder(nativeObject); }
+                };
+
+        private NativeReaper.Cleanable mCleanable;
+        private long mNativeBuilder;
+
+        // vertex layout, used to estimate the size of the vertex buffer and by GeometryHeap
+        private int mVertexCount;
+        private int mBufferCount = 1;
+        private boolean mBufferObjectsEnabled;
+        // buffer index (-1 if not set), byte offset, byte stride and size of each attribute
+        @NonNull private final int[] mAttributeBuffers = new int[VertexAttribute.values().length];
+        @NonNull private final int[] mAttributeOffsets = new int[VertexAttribute.values().length];
+        @NonNull private final int[] mAttributeStrides = new int[VertexAttribute.values().length];
+        @NonNull private final int[] mAttributeSizes = new int[VertexAttribute.values().length];
 
         public Builder() {
             mNativeBuilder = nCreateBuilder();
-            mFinalizer = new BuilderFinalizer(mNativeBuilder);
+            mCleanable = NativeReaper.register(this, mNativeBuilder, sBuilderDestructor);
+            Arrays.fill(mAttributeBuffers, -1);
+        }
+
+        /**
+         * Resets this builder to its initial state, as if it had just been constructed, so that it
+         * can be configured again from scratch.
+         *
+         * <p>A builder can be used to build any number of vertex buffers; settings are kept from one
+         * call to <code>build</code> to the next. When creating many similar vertex buffers, it is
+         * cheaper to reuse a single builder and change only what differs between builds than to
+         * create a new builder each time.</p>
+         *
+         * @return this <code>Builder</code> object for chaining calls
+         */
+        @NonNull
+        public Builder reset() {
+            if (mNativeBuilder == 0) {
+                throw new IllegalStateException("Calling method on closed Builder");
+            }
+            mCleanable.clean();
+            mNativeBuilder = nCreateBuilder();
+            mCleanable = NativeReaper.register(this, mNativeBuilder, sBuilderDestructor);
+            mVertexCount = 0;
+            mBufferCount = 1;
+            mBufferObjectsEnabled = false;
+            Arrays.fill(mAttributeBuffers, -1);
+            return this;
         }
 
         /**
@@ -125,6 +182,7 @@ public class VertexBuffer {
         @NonNull
         public Builder vertexCount(@IntRange(from = 1) int vertexCount) {
             nBuilderVertexCount(mNativeBuilder, vertexCount);
+            mVertexCount = vertexCount;
             return this;
         }
 
@@ -140,6 +198,7 @@ public class VertexBuffer {
         @NonNull
         public Builder enableBufferObjects(boolean enabled) {
             nBuilderEnableBufferObjects(mNativeBuilder, enabled);
+            mBufferObjectsEnabled = enabled;
             return this;
         }
 
@@ -156,6 +215,7 @@ public class VertexBuffer {
         @NonNull
         public Builder bufferCount(@IntRange(from = 1) int bufferCount) {
             nBuilderBufferCount(mNativeBuilder, bufferCount);
+            mBufferCount = bufferCount;
             return this;
         }
 
@@ -194,6 +254,11 @@ public class VertexBuffer {
                 @IntRange(from = 0) int byteOffset, @IntRange(from = 0) int byteStride) {
             nBuilderAttribute(mNativeBuilder, attribute.ordinal(), bufferIndex,
                     attributeType.ordinal(), byteOffset, byteStride);
+            final int size = sAttributeTypeSizes[attributeType.ordinal()];
+            mAttributeBuffers[attribute.ordinal()] = bufferIndex;
+            mAttributeOffsets[attribute.ordinal()] = byteOffset;
+            mAttributeStrides[attribute.ordinal()] = byteStride != 0 ? byteStride : size;
+            mAttributeSizes[attribute.ordinal()] = size;
             return this;
         }
 
@@ -263,6 +328,39 @@ public class VertexBuffer {
             return this;
         }
 
+        int getBufferCount() {
+            return mBufferCount;
+        }
+
+        // size in bytes of a vertex in the given buffer when its attributes are interleaved, i.e.
+        // share the same stride and fit within it. 0 if the buffer has no attribute, -1 if its
+        // vertices are not contiguous, for instance when attributes are stored one after another.
+        int getBufferStride(int bufferIndex) {
+            int stride = 0;
+            for (int i = 0; i < mAttributeBuffers.length; i++) {
+                if (mAttributeBuffers[i] != bufferIndex) continue;
+                if (stride != 0 && mAttributeStrides[i] != stride) {
+                    return -1;
+                }
+                stride = mAttributeStrides[i];
+                if (mAttributeOffsets[i] + mAttributeSizes[i] > stride) {
+                    return -1;
+                }
+            }
+            return stride;
+        }
+
+        // size in bytes of the given buffer, as described by the attributes and vertex count
+        private long getBufferByteCount(int bufferIndex) {
+            long byteCount = 0;
+            for (int i = 0; i < mAttributeBuffers.length; i++) {
+                if (mAttributeBuffers[i] != bufferIndex || mVertexCount == 0) continue;
+                byteCount = Math.max(byteCount, mAttributeOffsets[i] +
+                        (long) (mVertexCount - 1) * mAttributeStrides[i] + mAttributeSizes[i]);
+            }
+            return byteCount;
+        }
+
         /**
          * Creates the <code>VertexBuffer</code> object and returns a pointer to it.
          *
@@ -275,25 +373,31 @@ public class VertexBuffer {
          */
         @NonNull
         public VertexBuffer build(@NonNull Engine engine) {
+            if (mNativeBuilder == 0) {
+                throw new IllegalStateException("Calling method on closed Builder");
+            }
             long nativeVertexBuffer = nBuilderBuild(mNativeBuilder, engine.getNativeObject());
             if (nativeVertexBuffer == 0) throw new IllegalStateException("Couldn't create VertexBuffer");
-            return new VertexBuffer(nativeVertexBuffer);
-        }
-
-        private static class BuilderFinalizer {
-            private final long mNativeObject;
-
-            BuilderFinalizer(long nativeObject) { mNativeObject = nativeObject; }
-
-            @Override
-            public void finalize() {
-                try {
-                    super.finalize();
-                } catch (Throwable t) { // Ignore
-                } finally {
-                    nDestroyBuilder(mNativeObject);
+            VertexBuffer vertexBuffer = new VertexBuffer(nativeVertexBuffer);
+            if (!mBufferObjectsEnabled) {
+                // with buffer objects, the storage is owned and counted by the BufferObjects
+                for (int i = 0; i < mBufferCount; i++) {
+                    vertexBuffer.mByteCount += getBufferByteCount(i);
                 }
             }
+            ResourceTracker.onCreated(engine, vertexBuffer);
+            engine.onCreated(vertexBuffer);
+            return vertexBuffer;
+        }
+
+        /**
+         * Frees the native builder now rather than when this <code>Builder</code> becomes
+         * unreachable. The <code>Builder</code> must not be used after this call.
+         */
+        @Override
+        public void close() {
+            mCleanable.clean();
+            mNativeBuilder = 0;
         }
     }
 
@@ -27,6 +27,7 @@ import com.google.android.filament.LightManager;
 import com.google.android.filament.Scene;
 import com.google.android.filament.View;
 import com.google.android.filament.MaterialInstance;
+import com.google.android.filament.NativeReaper;
 import com.google.android.filament.Renderer;
 
 /**
@@ -51,6 +52,11 @@ import com.google.android.filament.Renderer;
  * (shouldClose) that is triggered after the last test has been invoked.
  */
 public class AutomationEngine {
+    private static final NativeReaper.Destructor sDestructor = new NativeReaper.Destructor() {
+        @Override
+        public void destroy(long nativeObject) { nDestroy(nativeObject); }
+    };
+
     private final long mNativeObject;
     private ColorGrading mColorGrading;
 
@@ -116,6 +122,7 @@ public class AutomationEngine {
     public AutomationEngine(@NonNull String jsonSpec) {
         mNativeObject = nCreateAutomationEngine(jsonSpec);
         if (mNativeObject == 0) throw new IllegalStateException("Couldn't create AutomationEngine");
+        NativeReaper.register(this, mNativeObject, sDestructor);
     }
 
     /**
@@ -127,6 +134,7 @@ public class AutomationEngine {
     public AutomationEngine() {
         mNativeObject = nCreateDefaultAutomationEngine();
         if (mNativeObject == 0) throw new IllegalStateException("Couldn't create AutomationEngine");
+        NativeReaper.register(this, mNativeObject, sDestructor);
     }
 
     /**
@@ -254,12 +262,6 @@ public class AutomationEngine {
      */
     public boolean shouldClose() { return nShouldClose(mNativeObject); }
 
-    @Override
-    protected void finalize() throws Throwable {
-        nDestroy(mNativeObject);
-        super.finalize();
-    }
-
     private static native long nCreateAutomationEngine(String jsonSpec);
     private static native long nCreateDefaultAutomationEngine();
     private static native void nSetOptions(long nativeObject, float sleepDuration,
@@ -16,22 +16,24 @@
 
 package com.google.android.filament.utils;
 
+import com.google.android.filament.NativeReaper;
+
 public class Bookmark {
+    private static final NativeReaper.Destructor sDestructor = new NativeReaper.Destructor() {
+        @Override
+        public void destroy(long nativeObject) { nDestroyBookmark(nativeObject); }
+    };
+
     private long mNativeObject;
 
     Bookmark(long nativeObject) {
         mNativeObject = nativeObject;
+        NativeReaper.register(this, nativeObject, sDestructor);
     }
 
     long getNativeObject() {
         return mNativeObject;
     }
 
-    @Override
-    protected void finalize() throws Throwable {
-        nDestroyBookmark(mNativeObject);
-        super.finalize();
-    }
-
     private static native void nDestroyBookmark(long nativeObject);
 }
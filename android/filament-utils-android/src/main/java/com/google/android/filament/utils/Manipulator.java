@@ -21,6 +21,8 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.Size;
 
+import com.google.android.filament.NativeReaper;
+
 /**
  * Helper that enables camera interaction similar to sketchfab or Google Maps.
  *
@@ -33,11 +35,16 @@ import androidx.annotation.Size;
  */
 public class Manipulator {
     private static final Mode[] sModeValues = Mode.values();
+    private static final NativeReaper.Destructor sDestructor = new NativeReaper.Destructor() {
+        @Override
+        public void destroy(long nativeObject) { nDestroyManipulator(nativeObject); }
+    };
 
     private final long mNativeObject;
 
     private Manipulator(long nativeIndexBuffer) {
         mNativeObject = nativeIndexBuffer;
+        NativeReaper.register(this, nativeIndexBuffer, sDestructor);
     }
 
     public enum Mode { ORBIT, MAP, FREE_FLIGHT };
@@ -58,15 +65,19 @@ public class Manipulator {
         DOWN
     }
 
-    public static class Builder {
-        @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"})
-        // Keep to finalize native resources
-        private final BuilderFinalizer mFinalizer;
-        private final long mNativeBuilder;
+    public static class Builder implements AutoCloseable {
+        private static final NativeReaper.Destructor sBuilderDestructor =
+                new NativeReaper.Destructor() {
+                    @Override
+                    public void destroy(long nativeObject) { nDestroyBuilder(nativeObject); }
+                };
+
+        private final NativeReaper.Cleanable mCleanable;
+        private long mNativeBuilder;
 
         public Builder() {
             mNativeBuilder = nCreateBuilder();
-            mFinalizer = new BuilderFinalizer(mNativeBuilder);
+            mCleanable = NativeReaper.register(this, mNativeBuilder, sBuilderDestructor);
         }
 
         /**
@@ -284,41 +295,26 @@ public class Manipulator {
          */
         @NonNull
         public Manipulator build(Mode mode) {
+            if (mNativeBuilder == 0) {
+                throw new IllegalStateException("Calling method on closed Builder");
+            }
             long nativeManipulator = nBuilderBuild(mNativeBuilder, mode.ordinal());
             if (nativeManipulator == 0)
                 throw new IllegalStateException("Couldn't create Manipulator");
             return new Manipulator(nativeManipulator);
         }
 
-        private static class BuilderFinalizer {
-            private final long mNativeObject;
-
-            BuilderFinalizer(long nativeObject) {
-                mNativeObject = nativeObject;
-            }
-
-            @Override
-            public void finalize() {
-                try {
-                    super.finalize();
-                } catch (Throwable t) { // Ignore
-                } finally {
-                    nDestroyBuilder(mNativeObject);
-                }
-            }
+        /**
+         * Frees the native builder now rather than when this <code>Builder</code> becomes
+         * unreachable. The <code>Builder</code> must not be used after this call.
+         */
+        @Override
+        public void close() {
+            mCleanable.clean();
+            mNativeBuilder = 0;
         }
     };
 
-    @Override
-    public void finalize() {
-        try {
-            super.finalize();
-        } catch (Throwable t) { // Ignore
-        } finally {
-            nDestroyManipulator(mNativeObject);
-        }
-    }
-
     /**
      * Gets the immutable mode of the manipulator.
      */
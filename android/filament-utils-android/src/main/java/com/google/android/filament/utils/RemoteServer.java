@@ -18,6 +18,8 @@ package com.google.android.filament.utils;
 
 import androidx.annotation.Nullable;
 
+import com.google.android.filament.NativeReaper;
+
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -28,6 +30,12 @@ import java.nio.ByteOrder;
  * internal queue.
  */
 public class RemoteServer {
+    private static final NativeReaper.Destructor sDestructor = new NativeReaper.Destructor() {
+        @Override
+        public void destroy(long nativeObject) { nDestroy(nativeObject); }
+    };
+
+    private final NativeReaper.Cleanable mCleanable;
     private long mNativeObject;
 
     /**
@@ -41,6 +49,7 @@ public class RemoteServer {
     public RemoteServer(int port) {
         mNativeObject = nCreate(port);
         if (mNativeObject == 0) throw new IllegalStateException("Couldn't create RemoteServer");
+        mCleanable = NativeReaper.register(this, mNativeObject, sDestructor);
     }
 
     /**
@@ -87,16 +96,10 @@ public class RemoteServer {
      * This might need to be done explicitly (as opposed to waiting for gc) to free up the port.
      */
     public void close() {
-        nDestroy(mNativeObject);
+        mCleanable.clean();
         mNativeObject = 0;
     }
 
-    @Override
-    protected void finalize() throws Throwable {
-        nDestroy(mNativeObject);
-        super.finalize();
-    }
-
     private static native long nCreate(int port);
     private static native String nPeekIncomingLabel(long nativeObject);
     private static native String nPeekReceivedLabel(long nativeObject);
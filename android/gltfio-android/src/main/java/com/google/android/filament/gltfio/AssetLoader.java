@@ -197,6 +197,9 @@ public class AssetLoader {
     public void destroyAsset(@NonNull FilamentAsset asset) {
         nDestroyAsset(mNativeObject, asset.getNativeObject());
         asset.clearNativeObject();
+        mEngine.getTransformManager().invalidateInstanceCache();
+        mEngine.getLightManager().invalidateInstanceCache();
+        mEngine.getRenderableManager().invalidateInstanceCache();
     }
 
     private static native long nCreateAssetLoader(long nativeEngine, Object provider,
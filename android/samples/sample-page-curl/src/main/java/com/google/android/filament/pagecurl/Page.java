@@ -38,6 +38,11 @@ public class Page {
     public FloatBuffer positions;
     public FloatBuffer tangents;
 
+    // tangent frames of the deformed mesh, packed into tangents with a single call
+    private FloatBuffer frameTangents;
+    private FloatBuffer frameBitangents;
+    private FloatBuffer frameNormals;
+
     static boolean USE_CPU = false;
 
     enum CurlStyle { PULL_CORNER, BREEZE };
@@ -111,7 +116,12 @@ public class Page {
         float[] du = new float[3]; // tangent vector along the U axis
         float[] dv = new float[3]; // tangent vector along the V axis
         float[] n = new float[3];  // normal vector (du x dv)
-        float[] q = new float[4];  // quaternion for the tangent frame
+
+        if (this.frameNormals == null) {
+            this.frameTangents = FloatBuffer.allocate(count * 3);
+            this.frameBitangents = FloatBuffer.allocate(count * 3);
+            this.frameNormals = FloatBuffer.allocate(count * 3);
+        }
 
         for (int i = 0; i < count; i++) {
             final float u = this.uvs.get(i * 2);
@@ -128,22 +138,20 @@ public class Page {
             crossProduct(n, du, dv);
             normalize(n);
 
-            MathUtils.packTangentFrame(
-                    du[0], du[1], du[2],
-                    dv[0], dv[1], dv[2],
-                    n[0], n[1], n[2],
-                    q);
-
-            this.tangents.put(i * 4, q[0]);
-            this.tangents.put(i * 4 + 1, q[1]);
-            this.tangents.put(i * 4 + 2, q[2]);
-            this.tangents.put(i * 4 + 3, q[3]);
+            for (int j = 0; j < 3; j++) {
+                this.frameTangents.put(i * 3 + j, du[j]);
+                this.frameBitangents.put(i * 3 + j, dv[j]);
+                this.frameNormals.put(i * 3 + j, n[j]);
+            }
 
             this.positions.put(i * 3, p[0]);
             this.positions.put(i * 3 + 1, p[1]);
             this.positions.put(i * 3 + 2, p[2]);
         }
 
+        MathUtils.packTangentFrames(this.frameTangents, this.frameBitangents, this.frameNormals,
+                this.tangents, count, MathUtils.TangentFrameFormat.FLOAT4);
+
         vertexBuffer.setBufferAt(engine, 0, positions);
         vertexBuffer.setBufferAt(engine, 2, tangents);
     }